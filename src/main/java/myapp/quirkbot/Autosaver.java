@@ -0,0 +1,115 @@
+package myapp.quirkbot;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Autosaver class which saves the changes to a task list on a background thread shortly after they are made.
+ * Each change restarts the quiet period, so a burst of changes is saved with a single write once the burst is over.
+ * The save only locks the task list while it takes the changes, and writes them after letting go,
+ * so commands never wait for the disk. The autosaver never holds the task list itself, and its own lock
+ * is only taken last, by the change listener, so it cannot take part in a deadlock.
+ */
+public class Autosaver {
+    static final long DEFAULT_QUIET_MILLIS = 1000;
+
+    private final StorageBackend storage;
+    private final TaskList taskList;
+    private final long quietNanos;
+    private final LongSupplier clock;
+    private final Thread saver;
+    private long lastChangeNanos;
+    private boolean isPending = false;
+    private boolean isClosed = false;
+
+    /**
+     * Constructs an Autosaver and starts its background thread.
+     *
+     * @param storage     The storage backend to which changes are saved.
+     * @param taskList    The task list whose changes are saved.
+     * @param quietMillis How long the task list must go unchanged before the changes are saved.
+     */
+    public Autosaver(StorageBackend storage, TaskList taskList, long quietMillis) {
+        this(storage, taskList, quietMillis, System::nanoTime);
+    }
+
+    /**
+     * Constructs an Autosaver which measures the quiet period with the specified clock,
+     * and starts its background thread.
+     *
+     * @param storage     The storage backend to which changes are saved.
+     * @param taskList    The task list whose changes are saved.
+     * @param quietMillis How long the task list must go unchanged before the changes are saved.
+     * @param clock       Returns the current time in nanoseconds.
+     */
+    Autosaver(StorageBackend storage, TaskList taskList, long quietMillis, LongSupplier clock) {
+        assert storage != null : "Storage should not be null.";
+        assert taskList != null : "Task list should not be null.";
+        assert quietMillis >= 0 : "Quiet period should not be negative.";
+        this.storage = storage;
+        this.taskList = taskList;
+        this.quietNanos = quietMillis * 1_000_000;
+        this.clock = clock;
+        this.saver = new Thread(this::run, "task-autosaver");
+        saver.setDaemon(true);
+        saver.start();
+    }
+
+    /**
+     * Schedules a save once the task list has gone unchanged for the quiet period.
+     */
+    public synchronized void requestSave() {
+        isPending = true;
+        lastChangeNanos = clock.getAsLong();
+        notifyAll();
+    }
+
+    /**
+     * Stops the background thread, waiting for a save in progress to finish.
+     * Changes still waiting for their quiet period are left for the caller to save.
+     */
+    public void close() {
+        synchronized (this) {
+            isClosed = true;
+            notifyAll();
+        }
+        try {
+            saver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Saves the task list each time a quiet period ends, until the autosaver is closed.
+     */
+    private void run() {
+        while (awaitQuietPeriod()) {
+            storage.saveChanges(taskList);
+        }
+    }
+
+    /**
+     * Blocks until changes are pending and the task list has gone unchanged for the quiet period.
+     *
+     * @return true if the changes should be saved, false if the autosaver has been closed.
+     */
+    private synchronized boolean awaitQuietPeriod() {
+        while (!isClosed) {
+            long remainingNanos = lastChangeNanos + quietNanos - clock.getAsLong();
+            if (isPending && remainingNanos <= 0) {
+                isPending = false;
+                return true;
+            }
+            try {
+                if (isPending) {
+                    wait(Math.max(1, remainingNanos / 1_000_000));
+                } else {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
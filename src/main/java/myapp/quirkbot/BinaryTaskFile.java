@@ -0,0 +1,578 @@
+package myapp.quirkbot;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * BinaryTaskFile class which reads and writes tasks in a fixed-layout binary format.
+ * The file starts with a header, followed by one fixed-size record per task and a heap holding the descriptions.
+ * Each record holds the task type, the completion status, up to two dates stored as 64-bit minutes since the epoch,
+ * and the offset and length of the description in the heap, so tasks can be decoded one at a time on demand.
+ * Spare record slots are reserved before the heap, so that changes can be written in place by
+ * {@link #update(String, TaskChanges, int[], int)} without rewriting the whole file.
+ * <p>
+ * The header is kept in two copies, each with a sequence number and a CRC32C checksum. An update never overwrites
+ * anything the current copy refers to: a deleted task is marked with the sequence number of the update deleting it,
+ * and new tasks go into spare slots and the end of the heap. The other header copy is written last, after the rest
+ * has been synced, and commits the update. Tombstones newer than the current copy are ignored, so an update
+ * interrupted by a crash leaves the previous contents intact, apart from completion statuses, which are written
+ * in place and are set again by replaying the journal. The header also holds the journal checkpoint,
+ * the first journal segment whose records are not in the file.
+ * <p>
+ * Files written by versions 1 and 2 have a single header and no tombstones, and version 1 stored the dates
+ * as 32-bit minutes, which cannot reach every year a task may be dated with.
+ * They are still read, and are rewritten in full rather than updated in place.
+ * <p>
+ * The file is read into memory with positional reads rather than memory-mapped. A mapping cannot be released
+ * on demand, and while one lasts, Windows refuses to let the file be replaced by the next save.
+ */
+public class BinaryTaskFile {
+    static final int MAGIC = 0x51425446;
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 104;
+    static final int RECORD_SIZE = 32;
+    static final long NO_DATE = Long.MIN_VALUE;
+    static final int MIN_SPARE_RECORDS = 64;
+
+    private static final int HEADER_COPY_SIZE = 48;
+    private static final int[] HEADER_COPY_OFFSETS = {8, 8 + HEADER_COPY_SIZE};
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int SLOT_COUNT_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    private static final int CHECKPOINT_OFFSET = 12;
+    private static final int HEAP_START_OFFSET = 16;
+    private static final int HEAP_END_OFFSET = 24;
+    private static final int CRC_OFFSET = HEADER_COPY_SIZE - Integer.BYTES;
+    private static final int TOMBSTONE_OFFSET = 4;
+
+    private static final int VERSION_1 = 1;
+    private static final int VERSION_2 = 2;
+    private static final int LEGACY_HEADER_SIZE = 32;
+    private static final int VERSION_1_RECORD_SIZE = 20;
+    private static final int VERSION_2_RECORD_SIZE = 28;
+    private static final int VERSION_1_NO_DATE = Integer.MIN_VALUE;
+    private static final int LEGACY_COUNT_OFFSET = 8;
+    private static final int LEGACY_HEAP_START_OFFSET = 12;
+    private static final int LEGACY_HEAP_END_OFFSET = 20;
+    private static final int LEGACY_CHECKPOINT_OFFSET = 28;
+
+    private final ByteBuffer buffer;
+    private final int version;
+    private final int recordStart;
+    private final int recordSize;
+    private final int size;
+    private final int heapStart;
+    private final int journalCheckpoint;
+    private final int[] deletedSlots;
+    private final boolean hasUncommittedTombstones;
+
+    private BinaryTaskFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < LEGACY_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary task file");
+        }
+        this.version = buffer.getInt(4);
+        if (version != VERSION && version != VERSION_2 && version != VERSION_1) {
+            throw new IOException("Unsupported binary task file version");
+        }
+        long heapEnd;
+        if (version == VERSION) {
+            int header = buffer.capacity() < HEADER_SIZE ? -1 : findCurrentHeader(buffer);
+            if (header < 0) {
+                throw new IOException("Binary task file header is corrupt");
+            }
+            this.recordStart = HEADER_SIZE;
+            this.recordSize = RECORD_SIZE;
+            this.size = buffer.getInt(header + COUNT_OFFSET);
+            this.heapStart = (int) buffer.getLong(header + HEAP_START_OFFSET);
+            this.journalCheckpoint = buffer.getInt(header + CHECKPOINT_OFFSET);
+            heapEnd = buffer.getLong(header + HEAP_END_OFFSET);
+
+            int sequence = buffer.getInt(header + SEQUENCE_OFFSET);
+            int slotCount = buffer.getInt(header + SLOT_COUNT_OFFSET);
+            if (slotCount < size || HEADER_SIZE + (long) slotCount * RECORD_SIZE > heapStart) {
+                throw new IOException("Binary task file header is inconsistent");
+            }
+            int[] slots = new int[slotCount - size];
+            int deletedCount = 0;
+            boolean isTorn = false;
+            for (int slot = 0; slot < slotCount; slot++) {
+                int tombstone = buffer.getInt(HEADER_SIZE + slot * RECORD_SIZE + TOMBSTONE_OFFSET);
+                if (tombstone == 0) {
+                    continue;
+                } else if (tombstone > sequence) {
+                    isTorn = true;
+                } else if (deletedCount < slots.length) {
+                    slots[deletedCount++] = slot;
+                } else {
+                    throw new IOException("Binary task file has more tombstones than its header allows");
+                }
+            }
+            if (deletedCount < slots.length) {
+                throw new IOException("Binary task file has fewer tombstones than its header requires");
+            }
+            this.deletedSlots = slots;
+            this.hasUncommittedTombstones = isTorn;
+        } else {
+            this.recordStart = LEGACY_HEADER_SIZE;
+            this.recordSize = version == VERSION_1 ? VERSION_1_RECORD_SIZE : VERSION_2_RECORD_SIZE;
+            this.size = buffer.getInt(LEGACY_COUNT_OFFSET);
+            this.heapStart = (int) buffer.getLong(LEGACY_HEAP_START_OFFSET);
+            this.journalCheckpoint = buffer.getInt(LEGACY_CHECKPOINT_OFFSET);
+            heapEnd = buffer.getLong(LEGACY_HEAP_END_OFFSET);
+            this.deletedSlots = new int[0];
+            this.hasUncommittedTombstones = false;
+        }
+        if (heapEnd > buffer.capacity()) {
+            throw new IOException("Binary task file is truncated");
+        }
+    }
+
+    /**
+     * Reads the binary task file at the specified path into memory, and closes it.
+     * Only the tombstones are checked up front; no task is decoded until it is requested with {@link #getTask(int)}.
+     *
+     * @param filePath The path to the binary task file.
+     * @return The binary task file.
+     * @throws IOException If the file cannot be read or is not a binary task file.
+     */
+    public static BinaryTaskFile open(String filePath) throws IOException {
+        assert filePath != null : "File path should not be null.";
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary task file is too large to be read");
+            }
+            return new BinaryTaskFile(readFully(channel, 0, (int) channel.size()));
+        }
+    }
+
+    /**
+     * Reads a range of a file into a new heap buffer with positional reads, which leave nothing behind
+     * once the channel is closed, unlike a memory mapping.
+     *
+     * @param channel  The channel of the file.
+     * @param position The position of the first byte to read.
+     * @param length   The number of bytes to read.
+     * @return The buffer holding the bytes, positioned at its start.
+     * @throws IOException If the range cannot be read, or runs past the end of the file.
+     */
+    static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("The file ended before the range was read");
+            }
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Writes the provided tasks to the specified path in the binary format.
+     * The file is written to a temporary file first and then moved into place,
+     * so a failed save never leaves a half-written task file behind.
+     *
+     * @param filePath          The path to the binary task file.
+     * @param tasks             The tasks to be written.
+     * @param journalCheckpoint The first journal segment whose records are not in the tasks.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(String filePath, List<Task> tasks, int journalCheckpoint) throws IOException {
+        assert filePath != null : "File path should not be null.";
+        assert tasks != null : "Task list should not be null.";
+        int count = tasks.size();
+        byte[][] descriptions = new byte[count][];
+        long heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            descriptions[i] = tasks.get(i).getDescription().getBytes(StandardCharsets.UTF_8);
+            heapSize += descriptions[i].length;
+        }
+        long capacity = count + Math.max(MIN_SPARE_RECORDS, count / 8);
+        long heapStart = HEADER_SIZE + capacity * RECORD_SIZE;
+        long heapEnd = heapStart + heapSize;
+        if (heapEnd > Integer.MAX_VALUE) {
+            throw new IOException("Too many tasks to be written into a binary task file");
+        }
+
+        Path target = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocate((int) heapEnd);
+            out.putInt(0, MAGIC);
+            out.putInt(4, VERSION);
+            for (int headerOffset : HEADER_COPY_OFFSETS) {
+                writeHeaderCopy(out, headerOffset, 1, count, count, journalCheckpoint, heapStart, heapEnd);
+            }
+
+            int heapOffset = 0;
+            for (int i = 0; i < count; i++) {
+                writeRecord(out, HEADER_SIZE + i * RECORD_SIZE, tasks.get(i), heapOffset, descriptions[i].length);
+                out.put((int) heapStart + heapOffset, descriptions[i]);
+                heapOffset += descriptions[i].length;
+            }
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Applies the changes taken from a task list since the file was last written, touching only the affected records.
+     * Deleted tasks are marked with a tombstone, completion statuses of changed tasks are rewritten one byte at
+     * a time, and new tasks are written into the spare record slots and the heap. Once these writes are synced,
+     * the update is committed by writing the header copy which is not current.
+     * The slots of the deleted tasks are kept by the caller between updates, so that positions in the task list
+     * can be mapped to record slots without reading every record. Deleted records and their descriptions stay
+     * in the file until the next full write, which is needed once they outnumber the tasks.
+     *
+     * @param filePath          The path to the binary task file.
+     * @param changes           The changes taken from the task list, whose tasks before the deletions match the file.
+     * @param deletedSlots      The slots deleted by earlier updates in ascending order, as returned by the last update,
+     *                          or null to read them from the file.
+     * @param journalCheckpoint The first journal segment whose records are not in the tasks.
+     * @return The slots deleted so far in ascending order, or null if the file must be rewritten instead.
+     * @throws IOException If the file cannot be read or written.
+     */
+    public static int[] update(String filePath, TaskChanges changes, int[] deletedSlots,
+            int journalCheckpoint) throws IOException {
+        assert changes != null : "Task changes should not be null.";
+        if (deletedSlots == null) {
+            BinaryTaskFile file = open(filePath);
+            if (file.version != VERSION || file.hasUncommittedTombstones) {
+                return null;
+            }
+            deletedSlots = file.deletedSlots;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return null;
+            }
+            int current = findCurrentHeader(header);
+            if (current < 0 || header.getInt(current + SEQUENCE_OFFSET) == Integer.MAX_VALUE) {
+                return null;
+            }
+            int sequence = header.getInt(current + SEQUENCE_OFFSET) + 1;
+            int slotCount = header.getInt(current + SLOT_COUNT_OFFSET);
+            int savedCount = header.getInt(current + COUNT_OFFSET);
+            long heapStart = header.getLong(current + HEAP_START_OFFSET);
+            long heapEnd = header.getLong(current + HEAP_END_OFFSET);
+            if (slotCount - savedCount != deletedSlots.length) {
+                return null;
+            }
+
+            List<Task> tasks = changes.getTasks();
+            List<Integer> deletedIndices = changes.getDeletedIndices();
+            for (int index : deletedIndices) {
+                if (index < savedCount) {
+                    savedCount--;
+                }
+            }
+            int deletedCount = deletedSlots.length + header.getInt(current + COUNT_OFFSET) - savedCount;
+            int appendedCount = tasks.size() - savedCount;
+            long capacity = (heapStart - HEADER_SIZE) / RECORD_SIZE;
+            if (slotCount + appendedCount > capacity || deletedCount > Math.max(MIN_SPARE_RECORDS, tasks.size())) {
+                return null;
+            }
+
+            int[] slots = Arrays.copyOf(deletedSlots, deletedCount);
+            int slotsUsed = deletedSlots.length;
+            int remainingCount = header.getInt(current + COUNT_OFFSET);
+            ByteBuffer tombstone = ByteBuffer.allocate(Integer.BYTES);
+            for (int index : deletedIndices) {
+                if (index >= remainingCount) {
+                    continue;
+                }
+                int slot = findSlot(slots, slotsUsed, index);
+                tombstone.clear();
+                tombstone.putInt(0, sequence);
+                channel.write(tombstone, HEADER_SIZE + (long) slot * RECORD_SIZE + TOMBSTONE_OFFSET);
+                int insertAt = -Arrays.binarySearch(slots, 0, slotsUsed, slot) - 1;
+                System.arraycopy(slots, insertAt, slots, insertAt + 1, slotsUsed - insertAt);
+                slots[insertAt] = slot;
+                slotsUsed++;
+                remainingCount--;
+            }
+
+            ByteBuffer flag = ByteBuffer.allocate(1);
+            for (Map.Entry<Integer, Task> entry : changes.getChangedTasks().headMap(savedCount).entrySet()) {
+                int slot = findSlot(slots, slotsUsed, entry.getKey());
+                flag.clear();
+                flag.put(0, (byte) (entry.getValue().getDone() ? 1 : 0));
+                channel.write(flag, HEADER_SIZE + (long) slot * RECORD_SIZE + 1);
+            }
+
+            if (appendedCount > 0) {
+                ByteBuffer records = ByteBuffer.allocate(appendedCount * RECORD_SIZE);
+                byte[][] descriptions = new byte[appendedCount][];
+                long heapSize = 0;
+                for (int i = 0; i < appendedCount; i++) {
+                    descriptions[i] = tasks.get(savedCount + i).getDescription().getBytes(StandardCharsets.UTF_8);
+                    writeRecord(records, i * RECORD_SIZE, tasks.get(savedCount + i),
+                            (int) (heapEnd - heapStart + heapSize), descriptions[i].length);
+                    heapSize += descriptions[i].length;
+                }
+                if (heapEnd + heapSize > Integer.MAX_VALUE) {
+                    return null;
+                }
+                ByteBuffer heap = ByteBuffer.allocate((int) heapSize);
+                for (byte[] description : descriptions) {
+                    heap.put(description);
+                }
+                heap.flip();
+                channel.write(heap, heapEnd);
+                channel.write(records, HEADER_SIZE + (long) slotCount * RECORD_SIZE);
+                heapEnd += heapSize;
+            }
+            channel.force(false);
+
+            int next = current == HEADER_COPY_OFFSETS[0] ? HEADER_COPY_OFFSETS[1] : HEADER_COPY_OFFSETS[0];
+            ByteBuffer headerCopy = ByteBuffer.allocate(HEADER_COPY_SIZE);
+            writeHeaderCopy(headerCopy, 0, sequence, slotCount + appendedCount, tasks.size(), journalCheckpoint,
+                    heapStart, heapEnd);
+            channel.write(headerCopy, next);
+            channel.force(false);
+            return slots;
+        }
+    }
+
+    /**
+     * Finds the record slot holding the task at the specified position, skipping the deleted slots.
+     * The slots before it include every deleted slot whose number, less the deleted slots before it,
+     * is at most the position, so the count of such slots is found by binary search.
+     *
+     * @param deletedSlots The deleted slots in ascending order.
+     * @param deletedCount The number of deleted slots in use at the start of the array.
+     * @param index        The zero-based position of the task among the tasks in the file.
+     * @return The record slot of the task.
+     */
+    static int findSlot(int[] deletedSlots, int deletedCount, int index) {
+        int low = 0;
+        int high = deletedCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (deletedSlots[middle] - middle <= index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return index + low;
+    }
+
+    /**
+     * Finds the current header copy, which is the valid copy with the highest sequence number.
+     *
+     * @param header The buffer holding the start of the file.
+     * @return The offset of the current header copy, or -1 if neither copy is valid.
+     */
+    private static int findCurrentHeader(ByteBuffer header) {
+        int current = -1;
+        for (int headerOffset : HEADER_COPY_OFFSETS) {
+            if (checksum(header, headerOffset) == header.getInt(headerOffset + CRC_OFFSET)
+                    && (current < 0 || header.getInt(headerOffset + SEQUENCE_OFFSET)
+                            > header.getInt(current + SEQUENCE_OFFSET))) {
+                current = headerOffset;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Writes a header copy with its checksum at the specified position.
+     *
+     * @param out               The buffer to write into.
+     * @param position          The position of the header copy in the buffer.
+     * @param sequence          The sequence number of the write that the header copy commits.
+     * @param slotCount         The number of record slots in use, including deleted ones.
+     * @param count             The number of tasks in the file.
+     * @param journalCheckpoint The first journal segment whose records are not in the file.
+     * @param heapStart         The position of the heap in the file.
+     * @param heapEnd           The position of the end of the heap in the file.
+     */
+    private static void writeHeaderCopy(ByteBuffer out, int position, int sequence, int slotCount, int count,
+            int journalCheckpoint, long heapStart, long heapEnd) {
+        for (int i = 0; i < HEADER_COPY_SIZE; i++) {
+            out.put(position + i, (byte) 0);
+        }
+        out.putInt(position + SEQUENCE_OFFSET, sequence);
+        out.putInt(position + SLOT_COUNT_OFFSET, slotCount);
+        out.putInt(position + COUNT_OFFSET, count);
+        out.putInt(position + CHECKPOINT_OFFSET, journalCheckpoint);
+        out.putLong(position + HEAP_START_OFFSET, heapStart);
+        out.putLong(position + HEAP_END_OFFSET, heapEnd);
+        out.putInt(position + CRC_OFFSET, checksum(out, position));
+    }
+
+    /**
+     * Computes the CRC32C checksum of the fields of a header copy.
+     *
+     * @param buffer   The buffer holding the header copy.
+     * @param position The position of the header copy in the buffer.
+     * @return The checksum.
+     */
+    private static int checksum(ByteBuffer buffer, int position) {
+        ByteBuffer fields = buffer.duplicate();
+        fields.limit(position + CRC_OFFSET).position(position);
+        CRC32C crc = new CRC32C();
+        crc.update(fields);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes the fixed-size record of a task at the specified position.
+     *
+     * @param out        The buffer to write into.
+     * @param position   The position of the record in the buffer.
+     * @param task       The task to be written.
+     * @param heapOffset The offset of the task description in the heap.
+     * @param length     The length in bytes of the task description.
+     */
+    private static void writeRecord(ByteBuffer out, int position, Task task, int heapOffset, int length) {
+        LocalDateTime first = null;
+        LocalDateTime second = null;
+        byte type;
+        if (task instanceof Deadline) {
+            type = 'D';
+            first = ((Deadline) task).getDeadlineBy();
+        } else if (task instanceof Event) {
+            type = 'E';
+            first = ((Event) task).getEventFrom();
+            second = ((Event) task).getEventTo();
+        } else {
+            type = 'T';
+        }
+        out.put(position, type);
+        out.put(position + 1, (byte) (task.getDone() ? 1 : 0));
+        out.putShort(position + 2, (short) 0);
+        out.putInt(position + TOMBSTONE_OFFSET, 0);
+        out.putLong(position + 8, toEpochMinutes(first));
+        out.putLong(position + 16, toEpochMinutes(second));
+        out.putInt(position + 24, heapOffset);
+        out.putInt(position + 28, length);
+    }
+
+    /**
+     * Returns the number of tasks in the file.
+     *
+     * @return The number of tasks.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first journal segment whose records are not in the file.
+     *
+     * @return The journal checkpoint, which is 0 for files written without a journal.
+     */
+    public int getJournalCheckpoint() {
+        return journalCheckpoint;
+    }
+
+    /**
+     * Decodes the task at the specified index from its record and the heap.
+     *
+     * @param index The index of the task to decode.
+     * @return The decoded task.
+     * @throws IllegalArgumentException If the record has an unknown task type.
+     */
+    public Task getTask(int index) {
+        assert index >= 0 && index < size : "Index should be within the bounds of the file.";
+        int position = recordStart + findSlot(deletedSlots, deletedSlots.length, index) * recordSize;
+        byte type = buffer.get(position);
+        boolean isDone = buffer.get(position + 1) == 1;
+        LocalDateTime first;
+        LocalDateTime second;
+        int heapOffset;
+        int length;
+        if (version == VERSION_1) {
+            first = fromVersion1EpochMinutes(buffer.getInt(position + 4));
+            second = fromVersion1EpochMinutes(buffer.getInt(position + 8));
+            heapOffset = buffer.getInt(position + 12);
+            length = buffer.getInt(position + 16);
+        } else if (version == VERSION_2) {
+            first = fromEpochMinutes(buffer.getLong(position + 4));
+            second = fromEpochMinutes(buffer.getLong(position + 12));
+            heapOffset = buffer.getInt(position + 20);
+            length = buffer.getInt(position + 24);
+        } else {
+            first = fromEpochMinutes(buffer.getLong(position + 8));
+            second = fromEpochMinutes(buffer.getLong(position + 16));
+            heapOffset = buffer.getInt(position + 24);
+            length = buffer.getInt(position + 28);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(heapStart + heapOffset, bytes);
+        String description = new String(bytes, StandardCharsets.UTF_8);
+
+        Task task;
+        if (type == 'T') {
+            task = new ToDo(description);
+        } else if (type == 'D') {
+            task = new Deadline(description, first);
+        } else if (type == 'E') {
+            task = new Event(description, first, second);
+        } else {
+            throw new IllegalArgumentException("Unknown task type");
+        }
+        if (isDone) {
+            task.markDone();
+        }
+        return task;
+    }
+
+    /**
+     * Converts a date and time into whole minutes since the epoch.
+     *
+     * @param dateTime The date and time to convert, which may be null.
+     * @return The minutes since the epoch, or {@link #NO_DATE} if the date and time is null.
+     */
+    static long toEpochMinutes(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NO_DATE;
+        }
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Converts whole minutes since the epoch back into a date and time.
+     *
+     * @param epochMinutes The minutes since the epoch, or {@link #NO_DATE}.
+     * @return The date and time, or null if there is no date.
+     */
+    static LocalDateTime fromEpochMinutes(long epochMinutes) {
+        if (epochMinutes == NO_DATE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(epochMinutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts whole minutes since the epoch, as stored by version 1 files, back into a date and time.
+     *
+     * @param epochMinutes The 32-bit minutes since the epoch, or the version 1 marker for no date.
+     * @return The date and time, or null if there is no date.
+     */
+    private static LocalDateTime fromVersion1EpochMinutes(int epochMinutes) {
+        return epochMinutes == VERSION_1_NO_DATE ? null : fromEpochMinutes(epochMinutes);
+    }
+}
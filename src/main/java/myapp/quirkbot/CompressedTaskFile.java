@@ -0,0 +1,329 @@
+package myapp.quirkbot;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * CompressedTaskFile class which stores tasks as independently compressed blocks of text lines.
+ * Each block holds up to {@link #BLOCK_TASKS} tasks in the " | " separated text format, compressed with Deflater.
+ * An index of every block's position and size is written after the blocks and located through a fixed-size
+ * footer, so any block can be read on its own and all blocks can be decompressed in parallel.
+ * Since version 2, the header also holds the journal checkpoint, the first journal segment whose records
+ * are not in the file.
+ */
+public class CompressedTaskFile {
+    static final int MAGIC = 0x5142545a;
+    static final int VERSION = 2;
+    static final int BLOCK_TASKS = 4096;
+
+    private static final int HEADER_SIZE = 12;
+    private static final int LEGACY_VERSION = 1;
+    private static final int LEGACY_HEADER_SIZE = 8;
+    private static final int INDEX_ENTRY_SIZE = 20;
+    private static final int FOOTER_SIZE = 16;
+
+    private final FileChannel channel;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] uncompressedLengths;
+    private final int journalCheckpoint;
+
+    private CompressedTaskFile(FileChannel channel, int blockCount, int journalCheckpoint) {
+        this.channel = channel;
+        this.journalCheckpoint = journalCheckpoint;
+        this.offsets = new long[blockCount];
+        this.compressedLengths = new int[blockCount];
+        this.uncompressedLengths = new int[blockCount];
+    }
+
+    /**
+     * Opens the compressed task file at the specified path and reads its block index.
+     *
+     * @param filePath The path to the compressed task file.
+     * @return The opened file, which must be closed by the caller.
+     * @throws IOException If the file cannot be read or is not a compressed task file.
+     */
+    public static CompressedTaskFile open(String filePath) throws IOException {
+        assert filePath != null : "File path should not be null.";
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            if (channel.size() < LEGACY_HEADER_SIZE + FOOTER_SIZE) {
+                throw new IOException("Not a compressed task file");
+            }
+            ByteBuffer header = readFully(channel, 0, LEGACY_HEADER_SIZE);
+            ByteBuffer footer = readFully(channel, channel.size() - FOOTER_SIZE, FOOTER_SIZE);
+            if (header.getInt(0) != MAGIC || footer.getInt(12) != MAGIC) {
+                throw new IOException("Not a compressed task file");
+            }
+            int version = header.getInt(4);
+            if (version != VERSION && version != LEGACY_VERSION) {
+                throw new IOException("Unsupported compressed task file version");
+            }
+            int journalCheckpoint = version == LEGACY_VERSION ? 0
+                    : readFully(channel, LEGACY_HEADER_SIZE, Integer.BYTES).getInt(0);
+            long indexOffset = footer.getLong(0);
+            int blockCount = footer.getInt(8);
+            CompressedTaskFile file = new CompressedTaskFile(channel, blockCount, journalCheckpoint);
+            ByteBuffer index = readFully(channel, indexOffset, blockCount * INDEX_ENTRY_SIZE);
+            for (int i = 0; i < blockCount; i++) {
+                file.offsets[i] = index.getLong(i * INDEX_ENTRY_SIZE);
+                file.compressedLengths[i] = index.getInt(i * INDEX_ENTRY_SIZE + 8);
+                file.uncompressedLengths[i] = index.getInt(i * INDEX_ENTRY_SIZE + 12);
+            }
+            return file;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the provided tasks to the specified path in the compressed format.
+     * The file is written to a temporary file first and then moved into place.
+     *
+     * @param filePath          The path to the compressed task file.
+     * @param tasks             The tasks to be written.
+     * @param journalCheckpoint The first journal segment whose records are not in the tasks.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(String filePath, List<Task> tasks, int journalCheckpoint) throws IOException {
+        assert filePath != null : "File path should not be null.";
+        assert tasks != null : "Task list should not be null.";
+        Path temp = Paths.get(filePath + ".tmp");
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        Deflater deflater = new Deflater();
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(journalCheckpoint);
+            long offset = HEADER_SIZE;
+            byte[] compressed = new byte[1 << 16];
+            for (int start = 0; start < tasks.size(); start += BLOCK_TASKS) {
+                int end = Math.min(tasks.size(), start + BLOCK_TASKS);
+                StringBuilder block = new StringBuilder();
+                for (Task task : tasks.subList(start, end)) {
+                    block.append(task.toFileFormat()).append('\n');
+                }
+                byte[] bytes = block.toString().getBytes(StandardCharsets.UTF_8);
+
+                deflater.reset();
+                deflater.setInput(bytes);
+                deflater.finish();
+                int compressedLength = 0;
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(compressed);
+                    out.write(compressed, 0, length);
+                    compressedLength += length;
+                }
+
+                indexOut.writeLong(offset);
+                indexOut.writeInt(compressedLength);
+                indexOut.writeInt(bytes.length);
+                indexOut.writeInt(end - start);
+                offset += compressedLength;
+            }
+            index.writeTo(out);
+            out.writeLong(offset);
+            out.writeInt(index.size() / INDEX_ENTRY_SIZE);
+            out.writeInt(MAGIC);
+            out.flush();
+            stream.getChannel().force(false);
+        } finally {
+            deflater.end();
+        }
+        Files.move(temp, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the first journal segment whose records are not in the file.
+     *
+     * @return The journal checkpoint, which is 0 for files written without a journal.
+     */
+    public int getJournalCheckpoint() {
+        return journalCheckpoint;
+    }
+
+    /**
+     * Returns the number of blocks in the file.
+     *
+     * @return The number of blocks.
+     */
+    public int getBlockCount() {
+        return offsets.length;
+    }
+
+    /**
+     * Reads and decompresses a single block without touching any other block.
+     *
+     * @param block The index of the block to read.
+     * @return The text lines stored in the block, each followed by a line break.
+     * @throws IOException If the block cannot be read or is corrupted.
+     */
+    public byte[] readBlock(int block) throws IOException {
+        assert block >= 0 && block < offsets.length : "Block should be within the bounds of the file.";
+        ByteBuffer compressed = readFully(channel, offsets[block], compressedLengths[block]);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            byte[] bytes = new byte[uncompressedLengths[block]];
+            int length = 0;
+            while (length < bytes.length && !inflater.finished()) {
+                length += inflater.inflate(bytes, length, bytes.length - length);
+                if (inflater.needsInput()) {
+                    break;
+                }
+            }
+            if (length != bytes.length) {
+                throw new IOException("Compressed task file block is corrupted");
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IOException("Compressed task file block is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Returns a stream of every block's text lines in order, decompressing each block only when it is reached.
+     *
+     * @return The decompressed contents of the file.
+     */
+    public InputStream openStream() {
+        Enumeration<InputStream> blocks = new Enumeration<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < offsets.length;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return new ByteArrayInputStream(readBlock(next++));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException(e.getMessage());
+                }
+            }
+        };
+        return new SequenceInputStream(blocks);
+    }
+
+    /**
+     * Decompresses and decodes every block in parallel, adding the tasks to the provided list in file order.
+     * As with a sequential load, malformed lines are reported and skipped.
+     *
+     * @param taskList The list to which tasks will be added.
+     * @param pool     The pool on which blocks are decoded.
+     * @throws IOException If a block cannot be read.
+     */
+    public void loadTasks(List<Task> taskList, ForkJoinPool pool) throws IOException {
+        assert taskList != null : "Task list should not be null.";
+        List<BlockDecoder> decoders = new ArrayList<>();
+        for (int i = 0; i < offsets.length; i++) {
+            BlockDecoder decoder = new BlockDecoder(i);
+            decoders.add(decoder);
+            pool.execute(decoder);
+        }
+        for (BlockDecoder decoder : decoders) {
+            taskList.addAll(decoder.join());
+            if (decoder.ioError != null) {
+                throw decoder.ioError;
+            }
+        }
+    }
+
+    /**
+     * Closes the underlying file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads exactly the specified number of bytes at the specified position.
+     *
+     * @param channel  The channel to read from.
+     * @param position The position of the first byte.
+     * @param length   The number of bytes to read.
+     * @return A buffer backed by an array holding the bytes.
+     * @throws IOException If the file ends before all the bytes are read.
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Compressed task file is truncated");
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * BlockDecoder class which decompresses one block and decodes its lines.
+     */
+    private class BlockDecoder extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int block;
+        private IOException ioError;
+
+        BlockDecoder(int block) {
+            this.block = block;
+        }
+
+        /**
+         * Decodes the lines in the block, skipping malformed lines.
+         *
+         * @return The tasks decoded from the block, in order.
+         */
+        @Override
+        protected List<Task> compute() {
+            List<Task> tasks = new ArrayList<>();
+            try {
+                byte[] bytes = readBlock(block);
+                int lineStart = 0;
+                for (int i = 0; i < bytes.length; i++) {
+                    if (bytes[i] == '\n') {
+                        Task task = Storage.parseStoredTask(new String(bytes, lineStart, i - lineStart,
+                                StandardCharsets.UTF_8));
+                        if (task != null) {
+                            tasks.add(task);
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+            } catch (IOException e) {
+                ioError = e;
+            }
+            return tasks;
+        }
+    }
+}
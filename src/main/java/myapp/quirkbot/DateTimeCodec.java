@@ -0,0 +1,154 @@
+package myapp.quirkbot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * DateTimeCodec class which holds the date and time formats shared by the parser, the tasks and the task file.
+ * Dates are saved as "dd/MM/yyyy HHmm" and displayed as "MMM dd yyyy HH:mm". Both formatters are built once,
+ * and dates in the years 1 to 9999 are written digit by digit straight into a caller's StringBuilder,
+ * with the month abbreviations taken from the display formatter so they match its locale.
+ * Any other date is formatted, and any date that does not fit the fast path is parsed, by the formatters.
+ */
+final class DateTimeCodec {
+    static final DateTimeFormatter FILE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
+    static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
+
+    private static final int FILE_DATE_LENGTH = "dd/MM/yyyy HHmm".length();
+    private static final String[] MONTH_NAMES = new String[13];
+
+    static {
+        DateTimeFormatter monthFormatter = DateTimeFormatter.ofPattern("MMM", DISPLAY_FORMATTER.getLocale());
+        for (int month = 1; month <= 12; month++) {
+            MONTH_NAMES[month] = monthFormatter.format(LocalDate.of(2000, month, 1));
+        }
+    }
+
+    private DateTimeCodec() {
+    }
+
+    /**
+     * Appends a date in the "dd/MM/yyyy HHmm" file format.
+     *
+     * @param builder  The builder to append to.
+     * @param dateTime The date and time to be appended.
+     * @return The builder.
+     */
+    static StringBuilder appendFileDate(StringBuilder builder, LocalDateTime dateTime) {
+        if (!isFastPathYear(dateTime.getYear())) {
+            return builder.append(dateTime.format(FILE_FORMATTER));
+        }
+        appendDigits(builder, dateTime.getDayOfMonth(), 2).append('/');
+        appendDigits(builder, dateTime.getMonthValue(), 2).append('/');
+        appendDigits(builder, dateTime.getYear(), 4).append(' ');
+        appendDigits(builder, dateTime.getHour(), 2);
+        return appendDigits(builder, dateTime.getMinute(), 2);
+    }
+
+    /**
+     * Appends a date in the "MMM dd yyyy HH:mm" display format.
+     *
+     * @param builder  The builder to append to.
+     * @param dateTime The date and time to be appended.
+     * @return The builder.
+     */
+    static StringBuilder appendDisplayDate(StringBuilder builder, LocalDateTime dateTime) {
+        if (!isFastPathYear(dateTime.getYear())) {
+            return builder.append(dateTime.format(DISPLAY_FORMATTER));
+        }
+        builder.append(MONTH_NAMES[dateTime.getMonthValue()]).append(' ');
+        appendDigits(builder, dateTime.getDayOfMonth(), 2).append(' ');
+        appendDigits(builder, dateTime.getYear(), 4).append(' ');
+        appendDigits(builder, dateTime.getHour(), 2).append(':');
+        return appendDigits(builder, dateTime.getMinute(), 2);
+    }
+
+    /**
+     * Parses a date in the "dd/MM/yyyy HHmm" file format from part of a string.
+     * Well-formed dates are decoded digit by digit, and everything else is left to the file formatter,
+     * so a date is accepted, resolved or rejected exactly as the formatter would.
+     *
+     * @param text  The string holding the date.
+     * @param start The index of the first character of the date.
+     * @param end   The index after the last character of the date.
+     * @return The parsed date and time.
+     * @throws java.time.format.DateTimeParseException If the text is not a valid date in the file format.
+     */
+    static LocalDateTime parseFileDate(String text, int start, int end) {
+        if (end - start == FILE_DATE_LENGTH && text.charAt(start + 2) == '/' && text.charAt(start + 5) == '/'
+                && text.charAt(start + 10) == ' ') {
+            int day = parseDigits(text, start, 2);
+            int month = parseDigits(text, start + 3, 2);
+            int year = parseDigits(text, start + 6, 4);
+            int hour = parseDigits(text, start + 11, 2);
+            int minute = parseDigits(text, start + 13, 2);
+            if (year >= 1 && month >= 1 && month <= 12 && day >= 1 && day <= getMonthLength(year, month)
+                    && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+        }
+        return LocalDateTime.parse(text.substring(start, end), FILE_FORMATTER);
+    }
+
+    /**
+     * Returns whether a year is written by the fast path, which prints it as exactly four digits.
+     * The "yyyy" pattern counts years of the era, so years before 1 are left to the formatters.
+     *
+     * @param year The proleptic year.
+     * @return true if the year is between 1 and 9999, false otherwise.
+     */
+    private static boolean isFastPathYear(int year) {
+        return year >= 1 && year <= 9999;
+    }
+
+    /**
+     * Appends a non-negative number as a fixed number of decimal digits, padded with leading zeros.
+     *
+     * @param builder The builder to append to.
+     * @param value   The number to be appended.
+     * @param digits  The number of digits to append.
+     * @return The builder.
+     */
+    private static StringBuilder appendDigits(StringBuilder builder, int value, int digits) {
+        for (int divisor = digits == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + value / divisor % 10));
+        }
+        return builder;
+    }
+
+    /**
+     * Returns the number of days in a month.
+     *
+     * @param year  The year, which decides whether February has 29 days.
+     * @param month The month, from 1 to 12.
+     * @return The number of days in the month.
+     */
+    private static int getMonthLength(int year, int month) {
+        if (month == 2) {
+            boolean isLeapYear = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return isLeapYear ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * Decodes a fixed number of decimal digits.
+     *
+     * @param text   The string holding the digits.
+     * @param start  The index of the first digit.
+     * @param digits The number of digits.
+     * @return The decoded number, or -1 if any character is not an ASCII digit.
+     */
+    private static int parseDigits(String text, int start, int digits) {
+        int value = 0;
+        for (int i = start; i < start + digits; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -1,7 +1,6 @@
 package myapp.quirkbot;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 /**
@@ -22,6 +21,25 @@ public class Deadline extends Task {
         this.deadlineBy = deadlineBy;
     }
 
+    /**
+     * Returns the deadline of the task.
+     *
+     * @return The deadline date and time, or null if the task has none.
+     */
+    public LocalDateTime getDeadlineBy() {
+        return deadlineBy;
+    }
+
+    /**
+     * Returns the deadline of the task as its first date.
+     *
+     * @return The deadline date and time, or null if the task has none.
+     */
+    @Override
+    public LocalDateTime getStartDate() {
+        return deadlineBy;
+    }
+
     /**
      * Parses a string to create a Deadline task.
      * The string should be in the format used for saving to a file,
@@ -35,21 +53,26 @@ public class Deadline extends Task {
      */
     public static Deadline parseTask(String taskData) {
         assert taskData != null && !taskData.isBlank() : "Task data should not be null or blank";
-        String[] parts = taskData.split(" \\| ");
-        assert parts.length >= 3 : "Task data should have at least 3 parts";
+        int statusStart = TaskLineDecoder.nextFieldStart(TaskLineDecoder.findFieldEnd(taskData, 0));
+        int statusEnd = TaskLineDecoder.findFieldEnd(taskData, statusStart);
+        assert TaskLineDecoder.hasNextField(taskData, statusEnd) : "Task data should have at least 3 parts";
 
-        String description = parts[2].trim();
+        int descriptionStart = TaskLineDecoder.nextFieldStart(statusEnd);
+        int descriptionEnd = TaskLineDecoder.findFieldEnd(taskData, descriptionStart);
+        String description = TaskLineDecoder.getTrimmedField(taskData, descriptionStart, descriptionEnd);
         LocalDateTime deadlineBy = null;
-        if (parts.length > 3) {
+        if (TaskLineDecoder.hasNextField(taskData, descriptionEnd)) {
+            int dateStart = TaskLineDecoder.nextFieldStart(descriptionEnd);
             try {
-                deadlineBy = LocalDateTime.parse(parts[3], DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm"));
+                deadlineBy = DateTimeCodec.parseFileDate(taskData, dateStart,
+                        TaskLineDecoder.findFieldEnd(taskData, dateStart));
             } catch (DateTimeParseException e) {
                 System.out.println("Warning: There is no date format provided");
             }
         }
 
         Deadline deadline = new Deadline(description, deadlineBy);
-        if (parts[1].trim().equals("1")) {
+        if (TaskLineDecoder.isDone(taskData, statusStart, statusEnd)) {
             deadline.markDone();
         }
         return deadline;
@@ -66,13 +89,12 @@ public class Deadline extends Task {
      */
     @Override
     public String toString() {
-        String formattedDeadline = (deadlineBy != null)
-                ? " (by: "
-                + deadlineBy.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm"))
-                + ")"
-                : "";
-        return "[D][" + (this.getDone() ? "X" : " ") + "] "
-                + this.getDescription() + formattedDeadline;
+        StringBuilder builder = new StringBuilder("[D][").append(this.getDone() ? "X" : " ").append("] ")
+                .append(this.getDescription());
+        if (deadlineBy != null) {
+            DateTimeCodec.appendDisplayDate(builder.append(" (by: "), deadlineBy).append(")");
+        }
+        return builder.toString();
     }
 
     /**
@@ -87,11 +109,11 @@ public class Deadline extends Task {
      */
     @Override
     public String toFileFormat() {
-        String formattedDeadline = (deadlineBy != null)
-                ? " | "
-                + deadlineBy.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm"))
-                : "";
-        return "D | " + (this.getDone() ? "1" : "0") + " | "
-                + this.getDescription() + formattedDeadline;
+        StringBuilder builder = new StringBuilder("D | ").append(this.getDone() ? "1" : "0").append(" | ")
+                .append(this.getDescription());
+        if (deadlineBy != null) {
+            DateTimeCodec.appendFileDate(builder.append(" | "), deadlineBy);
+        }
+        return builder.toString();
     }
 }
@@ -1,7 +1,6 @@
 package myapp.quirkbot;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 /**
@@ -23,14 +22,50 @@ public class Event extends Task {
         super(description);
         assert description != null && !description.isBlank()
                 : "Description should not be null or blank";
-        assert eventFrom == null || eventTo == null
-                : "Event start time and end time should not be null or blank";
-        assert !eventFrom.isAfter(eventTo)
+        assert eventFrom == null || eventTo == null || !eventFrom.isAfter(eventTo)
                 : "Event start time must be before or equal to end time";
         this.eventFrom = eventFrom;
         this.eventTo = eventTo;
     }
 
+    /**
+     * Returns the start date and time of the event.
+     *
+     * @return The start date and time, or null if the event has none.
+     */
+    public LocalDateTime getEventFrom() {
+        return eventFrom;
+    }
+
+    /**
+     * Returns the end date and time of the event.
+     *
+     * @return The end date and time, or null if the event has none.
+     */
+    public LocalDateTime getEventTo() {
+        return eventTo;
+    }
+
+    /**
+     * Returns the start of the event as its first date.
+     *
+     * @return The start date and time, or null if the event has none.
+     */
+    @Override
+    public LocalDateTime getStartDate() {
+        return eventFrom;
+    }
+
+    /**
+     * Returns the end of the event as its last date, or its start if it has no end, or an end before its start.
+     *
+     * @return The last date and time of the event, or null if it has neither.
+     */
+    @Override
+    public LocalDateTime getEndDate() {
+        return eventTo == null || (eventFrom != null && eventTo.isBefore(eventFrom)) ? eventFrom : eventTo;
+    }
+
     /**
      * Parses a string to create an Event task.
      * The string should be in the format used for saving to a file,
@@ -47,17 +82,23 @@ public class Event extends Task {
     public static Event parseTask(String taskData) {
         assert taskData != null && !taskData.isBlank()
                 : "Task data should not be null or blank";
-        String[] parts = taskData.split(" \\| ");
-        assert parts.length >= 4 : "Task data should have at least 4 parts";
+        int statusStart = TaskLineDecoder.nextFieldStart(TaskLineDecoder.findFieldEnd(taskData, 0));
+        int statusEnd = TaskLineDecoder.findFieldEnd(taskData, statusStart);
+        int descriptionStart = TaskLineDecoder.nextFieldStart(statusEnd);
+        int descriptionEnd = TaskLineDecoder.findFieldEnd(taskData, descriptionStart);
+        assert TaskLineDecoder.hasNextField(taskData, descriptionEnd) : "Task data should have at least 4 parts";
 
-        String description = parts[2];
+        String description = taskData.substring(descriptionStart, descriptionEnd);
         LocalDateTime from = null;
         LocalDateTime to = null;
 
         try {
-            from = LocalDateTime.parse(parts[3], DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm"));
-            if (parts.length > 4) {
-                to = LocalDateTime.parse(parts[4], DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm"));
+            int fromStart = TaskLineDecoder.nextFieldStart(descriptionEnd);
+            int fromEnd = TaskLineDecoder.findFieldEnd(taskData, fromStart);
+            from = DateTimeCodec.parseFileDate(taskData, fromStart, fromEnd);
+            if (TaskLineDecoder.hasNextField(taskData, fromEnd)) {
+                int toStart = TaskLineDecoder.nextFieldStart(fromEnd);
+                to = DateTimeCodec.parseFileDate(taskData, toStart, TaskLineDecoder.findFieldEnd(taskData, toStart));
             }
             assert from == null || to == null || !from.isAfter(to)
                     : "Event start time must be before or equal to end time";
@@ -66,7 +107,7 @@ public class Event extends Task {
         }
 
         Event event = new Event(description, from, to);
-        if (parts[1].trim().equals("1")) {
+        if (TaskLineDecoder.isDone(taskData, statusStart, statusEnd)) {
             event.markDone();
         }
         return event;
@@ -84,15 +125,15 @@ public class Event extends Task {
      */
     @Override
     public String toString() {
-        String formattedFrom = (eventFrom != null) ? " (from: "
-                + eventFrom.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm"))
-                : "";
-        String formattedTo = (eventTo != null) ? " to: "
-                + eventTo.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm"))
-                + ")"
-                : "";
-        return "[E][" + (this.getDone() ? "X" : " ") + "] "
-                + this.getDescription() + formattedFrom + formattedTo;
+        StringBuilder builder = new StringBuilder("[E][").append(this.getDone() ? "X" : " ").append("] ")
+                .append(this.getDescription());
+        if (eventFrom != null) {
+            DateTimeCodec.appendDisplayDate(builder.append(" (from: "), eventFrom);
+        }
+        if (eventTo != null) {
+            DateTimeCodec.appendDisplayDate(builder.append(" to: "), eventTo).append(")");
+        }
+        return builder.toString();
     }
 
     /**
@@ -108,13 +149,14 @@ public class Event extends Task {
      */
     @Override
     public String toFileFormat() {
-        String formattedFrom = (eventFrom != null) ? " | "
-                + eventFrom.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm"))
-                : "";
-        String formattedTo = (eventTo != null) ? " | "
-                + eventTo.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm"))
-                : "";
-        return "E | " + (this.getDone() ? "1" : "0") + " | "
-                + this.getDescription() + formattedFrom + formattedTo;
+        StringBuilder builder = new StringBuilder("E | ").append(this.getDone() ? "1" : "0").append(" | ")
+                .append(this.getDescription());
+        if (eventFrom != null) {
+            DateTimeCodec.appendFileDate(builder.append(" | "), eventFrom);
+        }
+        if (eventTo != null) {
+            DateTimeCodec.appendFileDate(builder.append(" | "), eventTo);
+        }
+        return builder.toString();
     }
 }
@@ -0,0 +1,132 @@
+package myapp.quirkbot;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * FramedRecordReader class which reads checksummed records from a stream in a single sequential pass.
+ * Each record is framed by a 4-byte length and a 4-byte CRC32C of its UTF-8 payload, followed by the payload.
+ * Reading stops at the first record that is cut short or fails its checksum, such as a write torn by a crash,
+ * and {@link #getValidLength()} then gives the length of the intact prefix that the file can be truncated to.
+ */
+public class FramedRecordReader implements Closeable {
+    static final int HEADER_SIZE = 8;
+    static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private final InputStream stream;
+    private final byte[] header = new byte[HEADER_SIZE];
+    private final CRC32C crc = new CRC32C();
+    private long validLength = 0;
+    private boolean isTorn = false;
+
+    /**
+     * Constructs a FramedRecordReader over the specified stream.
+     *
+     * @param stream The stream holding the framed records.
+     */
+    public FramedRecordReader(InputStream stream) {
+        assert stream != null : "Stream should not be null.";
+        this.stream = new BufferedInputStream(stream);
+    }
+
+    /**
+     * Writes the frame header of the specified payload into the provided buffer.
+     *
+     * @param payload The UTF-8 payload of the record.
+     * @param header  The buffer of at least {@link #HEADER_SIZE} bytes to write the header into.
+     */
+    static void writeHeader(byte[] payload, byte[] header) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload);
+        ByteBuffer.wrap(header).putInt(payload.length).putInt((int) checksum.getValue());
+    }
+
+    /**
+     * Reads the next intact record.
+     *
+     * @return The record, or null at the end of the stream or at the first torn or corrupted record.
+     * @throws IOException If the stream cannot be read.
+     */
+    public String readRecord() throws IOException {
+        if (isTorn) {
+            return null;
+        }
+        int headerRead = readFully(header);
+        if (headerRead == 0) {
+            return null;
+        }
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+        int length = headerBuffer.getInt();
+        int checksum = headerBuffer.getInt();
+        if (headerRead < HEADER_SIZE || length < 0 || length > MAX_RECORD_LENGTH) {
+            isTorn = true;
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        if (readFully(payload) < length) {
+            isTorn = true;
+            return null;
+        }
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            isTorn = true;
+            return null;
+        }
+        validLength += HEADER_SIZE + length;
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of bytes taken up by the intact records read so far.
+     *
+     * @return The length of the intact prefix of the stream.
+     */
+    public long getValidLength() {
+        return validLength;
+    }
+
+    /**
+     * Returns whether reading stopped at a torn or corrupted record rather than at the end of the stream.
+     *
+     * @return true if the stream ends with a torn or corrupted record, false otherwise.
+     */
+    public boolean isTorn() {
+        return isTorn;
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException If the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    /**
+     * Reads bytes until the buffer is full or the stream ends.
+     *
+     * @param buffer The buffer to fill.
+     * @return The number of bytes read.
+     * @throws IOException If the stream cannot be read.
+     */
+    private int readFully(byte[] buffer) throws IOException {
+        int count = 0;
+        while (count < buffer.length) {
+            int read = stream.read(buffer, count, buffer.length - count);
+            if (read < 0) {
+                break;
+            }
+            count += read;
+        }
+        return count;
+    }
+}
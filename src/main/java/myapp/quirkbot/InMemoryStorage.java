@@ -0,0 +1,128 @@
+package myapp.quirkbot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * InMemoryStorage class which keeps the saved tasks in memory instead of on disk.
+ * Nothing survives a restart, which makes it suitable for tests and benchmarks that should not touch the disk.
+ * The saved tasks are copied through their file format on save and on load, the way a file-based backend
+ * decodes them, so a change to the task list only reaches the saved tasks once it has been saved.
+ */
+public class InMemoryStorage implements StorageBackend {
+    private final ArrayList<Task> savedTasks = new ArrayList<>();
+
+    /**
+     * Adds the saved tasks to the provided list.
+     *
+     * @param taskList The list to which tasks will be added.
+     */
+    @Override
+    public synchronized void loadTasks(ArrayList<Task> taskList) {
+        assert taskList != null : "Task list should not be null.";
+        taskList.addAll(copyOf(savedTasks));
+    }
+
+    /**
+     * Adds the saved tasks to the provided task list at once, since there is nothing to wait for.
+     *
+     * @param taskList The task list to which tasks will be added.
+     * @param pageSize The number of tasks loaded at a time, which is ignored.
+     */
+    @Override
+    public synchronized void loadTasksInPages(TaskList taskList, int pageSize) {
+        assert taskList != null : "Task list should not be null.";
+        assert pageSize > 0 : "Page size should be positive.";
+        taskList.appendLoadedTasks(copyOf(savedTasks));
+    }
+
+    /**
+     * Replaces the saved tasks with the provided tasks.
+     *
+     * @param taskList The tasks to be saved.
+     */
+    @Override
+    public synchronized void saveTasks(ArrayList<Task> taskList) {
+        assert taskList != null : "Task list should not be null.";
+        savedTasks.clear();
+        savedTasks.addAll(copyOf(taskList));
+    }
+
+    /**
+     * Copies tasks by converting each one to its file format and parsing it back.
+     *
+     * @param tasks The tasks to be copied.
+     * @return The copies, in order.
+     */
+    private static ArrayList<Task> copyOf(List<Task> tasks) {
+        ArrayList<Task> copies = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            copies.add(Storage.parseTask(task.toFileFormat()));
+        }
+        return copies;
+    }
+
+    /**
+     * Replaces the saved tasks with the tasks in the task list.
+     *
+     * @param taskList The task list whose changes will be saved.
+     */
+    @Override
+    public synchronized void saveChanges(TaskList taskList) {
+        assert taskList != null : "Task list should not be null.";
+        saveTasks(taskList.takeChanges().getTasks());
+    }
+
+    /**
+     * Saves the tasks in the task list, since there is nothing else to do on exit.
+     *
+     * @param taskList The task list whose changes will be saved.
+     */
+    @Override
+    public void saveOnExit(TaskList taskList) {
+        saveChanges(taskList);
+    }
+
+    /**
+     * Does nothing, since changes are not recorded.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Does nothing, since the task is saved with the rest of the list.
+     *
+     * @param task The task that was added.
+     */
+    @Override
+    public void recordAdd(Task task) {
+    }
+
+    /**
+     * Does nothing, since the deletion is saved with the rest of the list.
+     *
+     * @param index The zero-based index of the deleted task.
+     */
+    @Override
+    public void recordDelete(int index) {
+    }
+
+    /**
+     * Does nothing, since the task is saved with the rest of the list.
+     *
+     * @param index The zero-based index of the marked task.
+     */
+    @Override
+    public void recordMark(int index) {
+    }
+
+    /**
+     * Does nothing, since the task is saved with the rest of the list.
+     *
+     * @param index The zero-based index of the unmarked task.
+     */
+    @Override
+    public void recordUnmark(int index) {
+    }
+}
@@ -0,0 +1,509 @@
+package myapp.quirkbot;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Journal class which appends one record per task mutation to a file
+ * and replays those records on top of the last saved snapshot.
+ * Each record is made of an operation code and its payload separated by " | ":
+ * "+ | T | 0 | read book" adds a task, while "- | 3", "M | 3" and "U | 3" delete,
+ * mark and unmark the task at the given zero-based index.
+ * Each segment starts with a magic number and a version, and records are framed with a length and a checksum,
+ * so a record torn by a crash is found and cut off during replay.
+ * Segments without the magic number hold one record per line, as written by older versions, and are still replayed.
+ * Records are written by a background {@link JournalWriter}, which commits them in batches.
+ * If a writer fails, the records it could not write are only in memory until the next snapshot,
+ * which {@link #flush()} reports. Later records give positions that assume the lost ones were applied,
+ * so from then on records are dropped rather than written until the journal is rotated for the next snapshot.
+ * The journal is split into numbered segment files. Once the active segment reaches its size cap it is sealed
+ * and a new one is started, so that sealed segments can be folded into the snapshot while writing carries on.
+ * The writer of the new segment only commits once the writer of the sealed one has finished without failing,
+ * so a segment is never durable unless every record before it is.
+ * A snapshot records the first segment it does not cover as its checkpoint, so segments that were folded into it
+ * but not yet deleted when the program stopped are skipped rather than replayed twice.
+ */
+public class Journal {
+    static final long DEFAULT_COMMIT_WINDOW_MILLIS = 20;
+    static final int DEFAULT_MAX_BATCH_SIZE = 512;
+    static final long DEFAULT_MAX_SEGMENT_BYTES = 4 << 20;
+    static final int MAGIC = 0x51424a4c;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    private static final String ADD = "+";
+    private static final String DELETE = "-";
+    private static final String MARK = "M";
+    private static final String UNMARK = "U";
+    private static final String SEPARATOR = " | ";
+
+    private final String filePath;
+    private final long commitWindowMillis;
+    private final int maxBatchSize;
+    private final long maxSegmentBytes;
+    private final NavigableSet<Integer> sealedSegments = new ConcurrentSkipListSet<>();
+    private final List<JournalWriter> sealingWriters = new ArrayList<>();
+    private volatile int activeSegment;
+    private long activeSegmentBytes;
+    private volatile JournalWriter writer;
+    private JournalWriter previousWriter;
+    private volatile boolean hasLostRecords = false;
+
+    /**
+     * Constructs a Journal backed by the specified file, using the default commit window and batch size.
+     *
+     * @param filePath The path to the journal file.
+     */
+    public Journal(String filePath) {
+        this(filePath, DEFAULT_COMMIT_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    /**
+     * Constructs a Journal backed by the specified file.
+     * The first segment is stored at the given path, and later segments add a ".1", ".2", ... suffix to it.
+     *
+     * @param filePath           The path to the journal file.
+     * @param commitWindowMillis How long the writer waits for more records before committing a batch.
+     * @param maxBatchSize       The maximum number of records committed together.
+     * @param maxSegmentBytes    The size at which the active segment is sealed and a new one is started.
+     */
+    public Journal(String filePath, long commitWindowMillis, int maxBatchSize, long maxSegmentBytes) {
+        assert filePath != null && !filePath.trim().isEmpty() : "Journal path should not be null or empty.";
+        assert maxSegmentBytes > 0 : "Segment size should be positive.";
+        this.filePath = filePath;
+        this.commitWindowMillis = commitWindowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.maxSegmentBytes = maxSegmentBytes;
+
+        List<Integer> segments = findSegments();
+        this.activeSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        this.activeSegmentBytes = new File(getSegmentPath(activeSegment)).length();
+        for (int segment : segments) {
+            if (segment < activeSegment) {
+                sealedSegments.add(segment);
+            }
+        }
+    }
+
+    /**
+     * Finds the numbers of the segment files that exist on disk, in ascending order.
+     *
+     * @return The existing segment numbers.
+     */
+    private List<Integer> findSegments() {
+        File journalFile = new File(filePath).getAbsoluteFile();
+        String prefix = journalFile.getName() + ".";
+        NavigableSet<Integer> segments = new TreeSet<>();
+        if (journalFile.exists()) {
+            segments.add(0);
+        }
+        String[] names = journalFile.getParentFile().list();
+        for (String name : names == null ? new String[0] : names) {
+            if (name.startsWith(prefix)) {
+                try {
+                    segments.add(Integer.parseInt(name.substring(prefix.length())));
+                } catch (NumberFormatException e) {
+                    // Not a segment file, such as a temporary file sharing the prefix.
+                }
+            }
+        }
+        return new ArrayList<>(segments);
+    }
+
+    /**
+     * Returns the header written at the start of every new segment file.
+     *
+     * @return The magic number followed by the version.
+     */
+    static byte[] getFileHeader() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).array();
+    }
+
+    /**
+     * Returns the path of the file holding the specified segment.
+     *
+     * @param segment The segment number.
+     * @return The path of the segment file.
+     */
+    private String getSegmentPath(int segment) {
+        return segment == 0 ? filePath : filePath + "." + segment;
+    }
+
+    /**
+     * Appends a record for a task that was added to the end of the list.
+     *
+     * @param task The task that was added.
+     */
+    public void recordAdd(Task task) {
+        assert task != null : "Added task should not be null.";
+        append(ADD + SEPARATOR + task.toFileFormat());
+    }
+
+    /**
+     * Appends a record for a task that was deleted from the list.
+     *
+     * @param index The zero-based index of the deleted task.
+     */
+    public void recordDelete(int index) {
+        append(DELETE + SEPARATOR + index);
+    }
+
+    /**
+     * Appends a record for a task that was marked as done.
+     *
+     * @param index The zero-based index of the marked task.
+     */
+    public void recordMark(int index) {
+        append(MARK + SEPARATOR + index);
+    }
+
+    /**
+     * Appends a record for a task that was marked as not done.
+     *
+     * @param index The zero-based index of the unmarked task.
+     */
+    public void recordUnmark(int index) {
+        append(UNMARK + SEPARATOR + index);
+    }
+
+    /**
+     * Queues a single record to be appended to the active segment, sealing the segment once it is full.
+     * The writer thread is started on first use and kept running so that each record costs one append.
+     * Once records have been lost, the record is dropped instead, and is kept by the next snapshot.
+     *
+     * @param record The record to be written.
+     */
+    private synchronized void append(String record) {
+        if (hasLostRecords || (writer != null && writer.hasFailed())) {
+            hasLostRecords = true;
+            return;
+        }
+        if (writer == null) {
+            writer = new JournalWriter(getSegmentPath(activeSegment), commitWindowMillis, maxBatchSize,
+                    previousWriter);
+            previousWriter = null;
+            activeSegmentBytes = Math.max(activeSegmentBytes, HEADER_SIZE);
+        }
+        byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+        writer.append(payload);
+        activeSegmentBytes += FramedRecordReader.HEADER_SIZE + payload.length;
+        if (activeSegmentBytes >= maxSegmentBytes) {
+            try {
+                sealActiveSegment();
+            } catch (IOException e) {
+                System.out.println("An error occurred while starting a new journal segment.");
+            }
+        }
+    }
+
+    /**
+     * Seals the active segment and starts a new one, which the next snapshot takes as its checkpoint.
+     * Every record appended before this call belongs to a segment below the returned checkpoint,
+     * so those segments can be deleted once a snapshot of the tasks as they are now is durable.
+     * Records appended after this call build on that snapshot rather than on the earlier segments,
+     * so they are written again even if earlier records were lost, and without waiting for the sealed writer.
+     *
+     * @return The number of the new active segment.
+     * @throws IOException If the new segment file cannot be created.
+     */
+    public synchronized int rotate() throws IOException {
+        sealActiveSegment();
+        previousWriter = null;
+        hasLostRecords = false;
+        return activeSegment;
+    }
+
+    /**
+     * Seals the active segment and starts a new one.
+     * The new segment file is created with its header straight away, so the segment numbering carries on
+     * after a restart even if nothing is written to it.
+     * The old writer finishes its queued records in the background, so this never waits on the disk,
+     * and the writer of the new segment waits for it before committing anything.
+     *
+     * @throws IOException If the new segment file cannot be created, in which case the active segment is kept.
+     */
+    private void sealActiveSegment() throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(getSegmentPath(activeSegment + 1))) {
+            stream.write(getFileHeader());
+        }
+        if (writer != null) {
+            writer.seal();
+            synchronized (sealingWriters) {
+                sealingWriters.add(writer);
+            }
+            previousWriter = writer;
+            writer = null;
+        }
+        sealedSegments.add(activeSegment);
+        activeSegment++;
+        activeSegmentBytes = HEADER_SIZE;
+    }
+
+    /**
+     * Returns the numbers of the sealed segments, oldest first.
+     *
+     * @return The sealed segment numbers.
+     */
+    public List<Integer> getSealedSegments() {
+        return new ArrayList<>(sealedSegments);
+    }
+
+    /**
+     * Blocks until every record appended so far has been written and synced to disk, or has failed to be.
+     *
+     * @return true if every record appended since the journal was last rotated is durable, false otherwise.
+     */
+    public boolean flush() {
+        flushSealedSegments();
+        JournalWriter activeWriter = writer;
+        if (activeWriter != null && !activeWriter.flush()) {
+            hasLostRecords = true;
+        }
+        return !hasLostRecords;
+    }
+
+    /**
+     * Blocks until every record in the sealed segments has been written and synced to disk.
+     * Records still going to the active segment are not waited for.
+     */
+    private void flushSealedSegments() {
+        synchronized (sealingWriters) {
+            for (JournalWriter sealingWriter : sealingWriters) {
+                sealingWriter.close();
+                if (sealingWriter.hasFailed()) {
+                    hasLostRecords = true;
+                }
+            }
+            sealingWriters.clear();
+        }
+    }
+
+    /**
+     * Returns whether the journal holds any segments besides an empty active segment.
+     * Segments that were already folded into the snapshot also count, since they still have to be deleted.
+     *
+     * @return true if the journal may have records to replay, false otherwise.
+     */
+    public boolean hasRecords() {
+        flush();
+        return !sealedSegments.isEmpty() || hasRecords(activeSegment);
+    }
+
+    /**
+     * Returns whether the specified segment file holds anything besides its header.
+     *
+     * @param segment The segment number.
+     * @return true if the segment holds records, false otherwise.
+     */
+    private boolean hasRecords(int segment) {
+        String segmentPath = getSegmentPath(segment);
+        long length = new File(segmentPath).length();
+        if (length == 0 || length > HEADER_SIZE) {
+            return length > 0;
+        }
+        try (InputStream stream = new FileInputStream(segmentPath)) {
+            return !hasMagic(stream.readNBytes(HEADER_SIZE));
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Replays every record from the checkpoint onwards on top of the provided list.
+     * A record that cannot be applied stops the replay, leaving the earlier records applied.
+     *
+     * @param taskList   The list holding the tasks loaded from the last snapshot.
+     * @param checkpoint The first segment not covered by the snapshot.
+     * @return The number of records applied.
+     */
+    public int replay(ArrayList<Task> taskList, int checkpoint) {
+        flush();
+        return replay(taskList, checkpoint, activeSegment);
+    }
+
+    /**
+     * Replays the records of every segment from the checkpoint up to and including the specified one, oldest first.
+     * A record that cannot be applied stops the replay, leaving the earlier records applied.
+     * A torn or corrupted record is cut off the end of its segment, and stops the replay in the same way.
+     * Only the sealed segments are flushed first, so this may run while records are being appended.
+     *
+     * @param taskList    The list holding the tasks loaded from the last snapshot.
+     * @param checkpoint  The first segment not covered by the snapshot.
+     * @param lastSegment The number of the last segment to replay.
+     * @return The number of records applied.
+     */
+    public int replay(ArrayList<Task> taskList, int checkpoint, int lastSegment) {
+        assert taskList != null : "Task list should not be null.";
+        flushSealedSegments();
+        if (checkpoint > lastSegment) {
+            return 0;
+        }
+        List<Integer> segments = new ArrayList<>(sealedSegments.subSet(checkpoint, true, lastSegment, true));
+        if (activeSegment >= checkpoint && activeSegment <= lastSegment) {
+            segments.add(activeSegment);
+        }
+        int appliedCount = 0;
+        for (int segment : segments) {
+            String segmentPath = getSegmentPath(segment);
+            if (!new File(segmentPath).exists()) {
+                continue;
+            }
+            try (InputStream stream = new FileInputStream(segmentPath)) {
+                byte[] header = stream.readNBytes(HEADER_SIZE);
+                if (!hasMagic(header)) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(
+                            new SequenceInputStream(new ByteArrayInputStream(header), stream)));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        apply(line, taskList);
+                        appliedCount++;
+                    }
+                    continue;
+                }
+                if (header.length < HEADER_SIZE) {
+                    System.out.println("Discarding a torn header at the start of the journal.");
+                    truncateSegment(segment, 0);
+                    break;
+                }
+                if (ByteBuffer.wrap(header).getInt(Integer.BYTES) != VERSION) {
+                    System.out.println("Skipping the rest of the journal: Unsupported journal version");
+                    break;
+                }
+
+                FramedRecordReader reader = new FramedRecordReader(stream);
+                String record;
+                while ((record = reader.readRecord()) != null) {
+                    apply(record, taskList);
+                    appliedCount++;
+                }
+                if (reader.isTorn()) {
+                    System.out.println("Discarding a torn record at the end of the journal.");
+                    truncateSegment(segment, HEADER_SIZE + reader.getValidLength());
+                    break;
+                }
+            } catch (IOException e) {
+                System.out.println("An error occurred while replaying the journal.");
+                break;
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                System.out.println("Skipping the rest of the journal: " + e.getMessage());
+                break;
+            }
+        }
+        return appliedCount;
+    }
+
+    /**
+     * Returns whether the start of a segment file matches the journal magic number,
+     * as far as the file goes. Empty files and files written by older versions have no magic number.
+     *
+     * @param header The first bytes of the segment file.
+     * @return true if the segment starts with the magic number or a torn prefix of it, false otherwise.
+     */
+    private static boolean hasMagic(byte[] header) {
+        byte[] magic = getFileHeader();
+        for (int i = 0; i < Math.min(header.length, Integer.BYTES); i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return header.length > 0;
+    }
+
+    /**
+     * Cuts a segment file down to the specified length, dropping a torn record at its end.
+     *
+     * @param segment The segment number.
+     * @param length  The length of the intact records at the start of the segment.
+     */
+    private void truncateSegment(int segment, long length) {
+        try (FileChannel channel = FileChannel.open(Paths.get(getSegmentPath(segment)), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            channel.force(false);
+        } catch (IOException e) {
+            System.out.println("An error occurred while repairing the journal.");
+            return;
+        }
+        if (segment == activeSegment) {
+            activeSegmentBytes = length;
+        }
+    }
+
+    /**
+     * Applies a single journal record to the provided list.
+     *
+     * @param record   The journal record to apply.
+     * @param taskList The list to which the record is applied.
+     * @throws IllegalArgumentException If the record has an unknown operation code.
+     */
+    private void apply(String record, ArrayList<Task> taskList) {
+        int separatorIndex = record.indexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            throw new IllegalArgumentException("Malformed journal record");
+        }
+        String operation = record.substring(0, separatorIndex);
+        String payload = record.substring(separatorIndex + SEPARATOR.length());
+        switch (operation) {
+        case ADD:
+            taskList.add(Storage.parseTask(payload));
+            break;
+        case DELETE:
+            taskList.remove(Integer.parseInt(payload));
+            break;
+        case MARK:
+            taskList.get(Integer.parseInt(payload)).markDone();
+            break;
+        case UNMARK:
+            taskList.get(Integer.parseInt(payload)).markUndone();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown journal operation");
+        }
+    }
+
+    /**
+     * Deletes the sealed segments up to and including the specified one,
+     * once their records have been folded into a snapshot that is durable on disk.
+     *
+     * @param lastSegment The number of the last segment to delete.
+     */
+    public void deleteSegments(int lastSegment) {
+        flushSealedSegments();
+        for (int segment : sealedSegments.headSet(lastSegment, true)) {
+            File segmentFile = new File(getSegmentPath(segment));
+            if (segmentFile.exists() && !segmentFile.delete()) {
+                System.out.println("An error occurred while deleting an old journal segment.");
+                return;
+            }
+            sealedSegments.remove(segment);
+        }
+    }
+
+    /**
+     * Writes out any pending records and stops the writer threads.
+     */
+    public void close() {
+        flush();
+        if (writer == null) {
+            return;
+        }
+        writer.close();
+        writer = null;
+    }
+}
@@ -0,0 +1,316 @@
+package myapp.quirkbot;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JournalWriter class which appends journal records on a dedicated background thread.
+ * Records are batched and written with a single flush and fsync per commit window,
+ * so callers never block on the disk unless they explicitly wait with {@link #flush()}.
+ * A new journal file starts with the journal magic number and version,
+ * and each record is written with a length and checksum header, in the layout read by {@link FramedRecordReader}.
+ * If a commit fails, the file is cut back to the end of the last committed batch and the writer stops writing,
+ * since later records refer to positions that only make sense after the lost ones.
+ * Waiters in {@link #flush()} are told that their records were not written, and the records are left for
+ * the next snapshot to save. For the same reason, a writer started for the segment after a sealed one waits for
+ * the sealed writer to finish before its first commit, and fails without writing anything if that writer failed.
+ */
+public class JournalWriter implements Runnable {
+    private final String filePath;
+    private final long commitWindowMillis;
+    private final int maxBatchSize;
+    private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+    private final Object fileLock = new Object();
+    private final byte[] header = new byte[FramedRecordReader.HEADER_SIZE];
+    private final Thread thread;
+    private JournalWriter predecessor;
+
+    private long appendedCount = 0;
+    private long committedCount = 0;
+    private boolean isFlushRequested = false;
+    private boolean isClosed = false;
+    private boolean isFailed = false;
+    private long committedLength = 0;
+    private FileOutputStream stream;
+    private BufferedOutputStream writer;
+
+    /**
+     * Constructs a JournalWriter and starts its background thread.
+     *
+     * @param filePath           The path to the journal file.
+     * @param commitWindowMillis How long to wait for more records before committing a batch.
+     * @param maxBatchSize       The maximum number of records committed together.
+     */
+    public JournalWriter(String filePath, long commitWindowMillis, int maxBatchSize) {
+        this(filePath, commitWindowMillis, maxBatchSize, null);
+    }
+
+    /**
+     * Constructs a JournalWriter which only commits once the writer of the previous segment has finished,
+     * and starts its background thread.
+     *
+     * @param filePath           The path to the journal file.
+     * @param commitWindowMillis How long to wait for more records before committing a batch.
+     * @param maxBatchSize       The maximum number of records committed together.
+     * @param predecessor        The writer of the previous segment, or null if the records do not follow on from it.
+     */
+    public JournalWriter(String filePath, long commitWindowMillis, int maxBatchSize, JournalWriter predecessor) {
+        assert filePath != null && !filePath.trim().isEmpty() : "Journal path should not be null or empty.";
+        assert commitWindowMillis >= 0 : "Commit window should not be negative.";
+        assert maxBatchSize > 0 : "Batch size should be positive.";
+        this.filePath = filePath;
+        this.commitWindowMillis = commitWindowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.predecessor = predecessor;
+        this.thread = new Thread(this, "journal-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a record to be written by the background thread.
+     *
+     * @param record The UTF-8 payload of the record to be written.
+     */
+    public synchronized void append(byte[] record) {
+        assert record != null : "Record should not be null.";
+        assert !isClosed : "Writer should not be closed.";
+        pending.add(record);
+        appendedCount++;
+        notifyAll();
+    }
+
+    /**
+     * Blocks until every record queued before this call has been written and synced to disk,
+     * or until writing has failed.
+     *
+     * @return true if every record queued before this call is durable, false otherwise.
+     */
+    public synchronized boolean flush() {
+        long target = appendedCount;
+        if (committedCount >= target) {
+            return true;
+        }
+        isFlushRequested = true;
+        notifyAll();
+        while (committedCount < target && !isFailed && thread.isAlive()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return committedCount >= target;
+    }
+
+    /**
+     * Returns whether a commit has failed, after which no more records are written.
+     *
+     * @return true if some records were not written, false otherwise.
+     */
+    public synchronized boolean hasFailed() {
+        return isFailed;
+    }
+
+    /**
+     * Writes out the remaining records and stops the background thread.
+     */
+    public void close() {
+        seal();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting records and lets the background thread finish writing the queued ones on its own.
+     * Unlike {@link #close()}, this returns immediately.
+     */
+    public synchronized void seal() {
+        isClosed = true;
+        notifyAll();
+    }
+
+    /**
+     * Returns whether the writer has written every record and stopped.
+     *
+     * @return true if the background thread has finished, false otherwise.
+     */
+    public boolean isFinished() {
+        return !thread.isAlive();
+    }
+
+    /**
+     * Repeatedly takes a batch of records and commits it until the writer is closed,
+     * then closes the journal file.
+     */
+    @Override
+    public void run() {
+        List<byte[]> batch;
+        while ((batch = nextBatch()) != null) {
+            commit(batch);
+        }
+        synchronized (fileLock) {
+            closeStream();
+        }
+    }
+
+    /**
+     * Waits for at least one record, then keeps collecting records until the commit window ends,
+     * the batch is full, or a flush is requested.
+     *
+     * @return The records to commit, or null if the writer is closed and has nothing left to write.
+     */
+    private synchronized List<byte[]> nextBatch() {
+        try {
+            while (pending.isEmpty() && !isClosed) {
+                wait();
+            }
+            long deadline = System.currentTimeMillis() + commitWindowMillis;
+            long remaining = commitWindowMillis;
+            while (pending.size() < maxBatchSize && !isFlushRequested && !isClosed && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+
+        List<byte[]> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+        while (!pending.isEmpty() && batch.size() < maxBatchSize) {
+            batch.add(pending.poll());
+        }
+        if (pending.isEmpty()) {
+            isFlushRequested = false;
+        }
+        return batch;
+    }
+
+    /**
+     * Writes a batch of records, then flushes and syncs the journal file once for the whole batch.
+     * The disk work happens outside the writer's monitor so that {@link #append(byte[])} never waits on it.
+     * Once a commit has failed, later batches are dropped without being written.
+     * The first commit waits for the writer of the previous segment, and fails if that writer failed.
+     *
+     * @param batch The records to write.
+     */
+    private void commit(List<byte[]> batch) {
+        boolean isCommitted = false;
+        synchronized (fileLock) {
+            if (!hasFailed() && awaitPredecessor()) {
+                try {
+                    writeBatch(batch);
+                    isCommitted = true;
+                } catch (IOException e) {
+                    System.out.println("An error occurred while writing to the journal.");
+                    discardUncommitted();
+                }
+            }
+        }
+        synchronized (this) {
+            if (isCommitted) {
+                committedCount += batch.size();
+            } else {
+                isFailed = true;
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits for the writer of the previous segment to finish, then forgets it.
+     *
+     * @return true if there was no previous writer or it wrote every record, false if it failed.
+     */
+    private boolean awaitPredecessor() {
+        if (predecessor == null) {
+            return true;
+        }
+        predecessor.close();
+        boolean isIntact = !predecessor.hasFailed();
+        predecessor = null;
+        return isIntact;
+    }
+
+    /**
+     * Appends a batch of framed records to the journal file, opening it first if needed, and syncs it.
+     *
+     * @param batch The records to write.
+     * @throws IOException If the records cannot be written or synced.
+     */
+    private void writeBatch(List<byte[]> batch) throws IOException {
+        long length = committedLength;
+        if (writer == null) {
+            stream = new FileOutputStream(filePath, true);
+            writer = new BufferedOutputStream(stream);
+            committedLength = stream.getChannel().size();
+            length = committedLength;
+            if (length == 0) {
+                writer.write(Journal.getFileHeader());
+                length = Journal.HEADER_SIZE;
+            }
+        }
+        for (byte[] payload : batch) {
+            FramedRecordReader.writeHeader(payload, header);
+            writer.write(header);
+            writer.write(payload);
+            length += FramedRecordReader.HEADER_SIZE + payload.length;
+        }
+        writer.flush();
+        stream.getChannel().force(false);
+        committedLength = length;
+    }
+
+    /**
+     * Closes the journal file without writing anything still buffered,
+     * and cuts it back to the end of the last committed batch.
+     */
+    private void discardUncommitted() {
+        try {
+            if (stream != null) {
+                stream.close();
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while closing the journal.");
+        }
+        writer = null;
+        stream = null;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.WRITE)) {
+            if (channel.size() > committedLength) {
+                channel.truncate(committedLength);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while repairing the journal.");
+        }
+    }
+
+    /**
+     * Closes the journal file if it is open.
+     */
+    private void closeStream() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.out.println("An error occurred while closing the journal.");
+        }
+        writer = null;
+        stream = null;
+    }
+}
@@ -0,0 +1,236 @@
+package myapp.quirkbot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * ParallelTaskLoader class which loads a text task file using every available core.
+ * The file is split into byte ranges that start and end on line boundaries,
+ * each range is decoded on the fork/join pool, and the results are joined back together in file order.
+ * Each range can be handed over as soon as it and the ranges before it are decoded, so the first tasks
+ * are available long before the whole file has been read.
+ * The journal checkpoint line at the start of the file, if there is one, is skipped.
+ * Each range is read with positional reads rather than memory-mapped, so that nothing keeps the file mapped
+ * after the load, which would stop the next save from replacing it on Windows.
+ */
+public class ParallelTaskLoader {
+    static final long MIN_CHUNK_SIZE = 1 << 20;
+    static final long MAX_CHUNK_SIZE = 1 << 30;
+
+    private final String filePath;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a ParallelTaskLoader for the specified text task file, using the common fork/join pool.
+     *
+     * @param filePath The path to the text task file.
+     */
+    public ParallelTaskLoader(String filePath) {
+        this(filePath, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ParallelTaskLoader for the specified text task file.
+     *
+     * @param filePath The path to the text task file.
+     * @param pool     The pool on which chunks are decoded.
+     */
+    public ParallelTaskLoader(String filePath, ForkJoinPool pool) {
+        assert filePath != null : "File path should not be null.";
+        assert pool != null : "Pool should not be null.";
+        this.filePath = filePath;
+        this.pool = pool;
+    }
+
+    /**
+     * Loads every task in the file into the provided list, in file order.
+     * As with a sequential load, malformed lines are reported and skipped.
+     *
+     * @param taskList The list to which tasks will be added.
+     * @throws IOException If the file cannot be read.
+     */
+    public void loadTasks(List<Task> taskList) throws IOException {
+        assert taskList != null : "Task list should not be null.";
+        loadChunks(taskList::addAll);
+    }
+
+    /**
+     * Decodes every task in the file, handing the tasks of each range to the consumer in file order.
+     * Malformed lines are reported and skipped.
+     *
+     * @param chunkConsumer The consumer which receives the tasks of each range.
+     * @throws IOException If the file cannot be read.
+     */
+    public void loadChunks(Consumer<List<Task>> chunkConsumer) throws IOException {
+        assert chunkConsumer != null : "Chunk consumer should not be null.";
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long[] boundaries = findChunkBoundaries(channel);
+            List<ChunkDecoder> decoders = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                long length = boundaries[i + 1] - boundaries[i];
+                if (length > 0) {
+                    decoders.add(new ChunkDecoder(channel, boundaries[i], (int) length));
+                }
+            }
+            for (ChunkDecoder decoder : decoders) {
+                pool.execute(decoder);
+            }
+            for (ChunkDecoder decoder : decoders) {
+                chunkConsumer.accept(decoder.join());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Splits the file into roughly equal byte ranges, moving each boundary forward past the next line break.
+     * The first range starts after the checkpoint line, if there is one.
+     *
+     * @param channel The channel of the file to split.
+     * @return The start of each range followed by the end of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    private long[] findChunkBoundaries(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        long preferredCount = Math.min(pool.getParallelism() * 4L, fileSize / MIN_CHUNK_SIZE);
+        int chunkCount = (int) Math.max(Math.max(1, preferredCount), fileSize / MAX_CHUNK_SIZE + 1);
+        long[] boundaries = new long[chunkCount + 1];
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        if (startsWithCheckpoint(channel, probe)) {
+            boundaries[0] = findLineStart(channel, 1, probe);
+        }
+        for (int i = 1; i < chunkCount; i++) {
+            long position = Math.max(boundaries[i - 1], fileSize / chunkCount * i);
+            boundaries[i] = findLineStart(channel, position, probe);
+        }
+        boundaries[chunkCount] = fileSize;
+        return boundaries;
+    }
+
+    /**
+     * Returns whether the file starts with a journal checkpoint line rather than a task.
+     *
+     * @param channel The channel of the file to check.
+     * @param probe   A scratch buffer used for reading.
+     * @return true if the first line is a checkpoint line, false otherwise.
+     * @throws IOException If the file cannot be read.
+     */
+    private static boolean startsWithCheckpoint(FileChannel channel, ByteBuffer probe) throws IOException {
+        byte[] prefix = TaskLineDecoder.CHECKPOINT_PREFIX.getBytes(StandardCharsets.US_ASCII);
+        probe.clear();
+        if (channel.read(probe, 0) < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (probe.get(i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the start of the first line that begins at or after the specified position.
+     *
+     * @param channel  The channel of the file to search.
+     * @param position The position to start searching from.
+     * @param probe    A scratch buffer used for reading.
+     * @return The position just after the next line break, or the end of the file if there is none.
+     * @throws IOException If the file cannot be read.
+     */
+    private static long findLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        long current = position - 1;
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, current);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return current + i + 1;
+                }
+            }
+            current += read;
+        }
+    }
+
+    /**
+     * ChunkDecoder class which reads and decodes every line in one byte range of the task file.
+     */
+    private static class ChunkDecoder extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long start;
+        private final int length;
+
+        ChunkDecoder(FileChannel channel, long start, int length) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+        }
+
+        /**
+         * Reads the chunk and decodes its lines, skipping malformed lines.
+         *
+         * @return The tasks decoded from the chunk, in order.
+         * @throws UncheckedIOException If the chunk cannot be read.
+         */
+        @Override
+        protected List<Task> compute() {
+            ByteBuffer chunk;
+            try {
+                chunk = BinaryTaskFile.readFully(channel, start, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            List<Task> tasks = new ArrayList<>();
+            int lineStart = 0;
+            for (int i = 0; i < chunk.limit(); i++) {
+                if (chunk.get(i) == '\n') {
+                    addTask(tasks, chunk, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < chunk.limit()) {
+                addTask(tasks, chunk, lineStart, chunk.limit());
+            }
+            return tasks;
+        }
+
+        /**
+         * Decodes a single line, ignoring a trailing carriage return, and adds its task unless it is malformed.
+         *
+         * @param tasks The list to which the task will be added.
+         * @param chunk The bytes of the chunk.
+         * @param start The position of the first byte of the line.
+         * @param end   The position just after the last byte of the line.
+         */
+        private static void addTask(List<Task> tasks, ByteBuffer chunk, int start, int end) {
+            if (end > start && chunk.get(end - 1) == '\r') {
+                end--;
+            }
+            byte[] line = new byte[end - start];
+            chunk.get(start, line);
+            Task task = Storage.parseStoredTask(new String(line, StandardCharsets.UTF_8));
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+    }
+}
@@ -1,15 +1,12 @@
 package myapp.quirkbot;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 /**
  * Parser class which helps to create a new Task object
  */
 public class Parser {
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
-
     /**
      * Parses a command string to create an appropriate Task object
      * If the command format is incorrect or any part of the command is invalid,
@@ -68,7 +65,7 @@ public class Parser {
             return null;
         }
         try {
-            return LocalDateTime.parse(dateTimeStr, FORMATTER);
+            return DateTimeCodec.parseFileDate(dateTimeStr, 0, dateTimeStr.length());
         } catch (DateTimeParseException e) {
             return null;
         }
@@ -0,0 +1,711 @@
+package myapp.quirkbot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * SearchIndex class which maps the terms in task descriptions to the tasks that contain them.
+ * The index saved next to the task file is read into memory when it matches the task file, so it is ready right
+ * after launch, and tasks added afterwards are indexed in memory. It is read rather than memory-mapped, because
+ * a mapping cannot be released on demand, and Windows refuses to truncate or replace a file while it is mapped.
+ * Each task is identified by a slot number that never changes while the index is open, and each slot holds
+ * the stable id of its task. Tasks are only appended, so the ids rise with the slots: deleting a task finds its
+ * slot by a binary search of the ids and marks it, and the tasks matching a query are returned as ids
+ * in list order, which the task list looks up directly.
+ * The saved index is a sorted term table written in full, followed by the batches of changes appended by each
+ * save since, so saving the changes takes time in proportion to the number of changes. A batch holds the slots
+ * of the deleted tasks and the terms of the added ones, and only counts once the header, which is written last
+ * and guarded by a checksum, has been stamped with the task file it belongs to. Once the batches outgrow the
+ * term table, the index is written in full again.
+ * Terms are the runs of letters and digits in a lowercased description. A keyword is looked up by its own runs:
+ * a run with a delimiter on both sides must be a whole term, and a run with a delimiter only before it must start
+ * a term, so both are found in the sorted terms. The candidates returned always include every task whose
+ * description contains the keyword, and a keyword whose runs cannot be found this way is not narrowed down at all.
+ * Whole words are looked up directly instead, by a binary search of the sorted saved terms and a lookup
+ * of the added terms, and their posting lists are intersected or merged, so a word query takes time in proportion
+ * to the lengths of its posting lists rather than the number of tasks.
+ */
+public class SearchIndex {
+    private static final int MAGIC = 0x51425349;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int TERM_ENTRY_SIZE = 16;
+    private static final int TASK_FILE_LENGTH_OFFSET = 8;
+    private static final int TASK_FILE_MODIFIED_OFFSET = 16;
+    private static final int BASE_SLOT_COUNT_OFFSET = 24;
+    private static final int TERM_COUNT_OFFSET = 28;
+    private static final int BASE_END_OFFSET = 32;
+    private static final int SLOT_COUNT_OFFSET = 40;
+    private static final int COUNT_OFFSET = 44;
+    private static final int DELTA_END_OFFSET = 48;
+    private static final int CRC_OFFSET = 60;
+    private static final long MIN_DELTA_SIZE = 1 << 16;
+    private static final String TERM_DELIMITER = "[^\\p{L}\\p{N}]+";
+
+    private final ByteBuffer buffer;
+    private final int termCount;
+    private final TreeMap<String, List<Integer>> addedPostings = new TreeMap<>();
+    private String[] savedTerms;
+    private final BitSet deletedSlots = new BitSet();
+    private int[] savedDeletedSlots = new int[0];
+    private long[] slotIds;
+    private int size;
+    private int nextSlot;
+
+    private SearchIndex(ByteBuffer buffer, int slotCount, int termCount) {
+        this.buffer = buffer;
+        this.termCount = termCount;
+        this.slotIds = new long[Math.max(16, slotCount)];
+        Arrays.fill(slotIds, Task.NO_ID);
+        this.size = slotCount;
+        this.nextSlot = slotCount;
+    }
+
+    /**
+     * Builds an index of the provided tasks in memory.
+     *
+     * @param tasks The tasks to be indexed, in list order.
+     * @return The index.
+     */
+    public static SearchIndex build(List<Task> tasks) {
+        assert tasks != null : "Task list should not be null.";
+        SearchIndex index = new SearchIndex(null, 0, 0);
+        for (Task task : tasks) {
+            index.addTask(task);
+        }
+        return index;
+    }
+
+    /**
+     * Reads the index saved at the specified path, if it was written for the current contents of the task file.
+     *
+     * @param indexPath    The path to the index file.
+     * @param taskFilePath The path to the task file the index belongs to.
+     * @return The saved index, or null if there is no index or it does not match the task file.
+     */
+    public static SearchIndex open(String indexPath, String taskFilePath) {
+        assert indexPath != null && taskFilePath != null : "File paths should not be null.";
+        if (!new File(indexPath).exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(indexPath), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = BinaryTaskFile.readFully(channel, 0, (int) channel.size());
+            if (!isCurrent(buffer, new File(taskFilePath)) || buffer.getLong(DELTA_END_OFFSET) > channel.size()) {
+                return null;
+            }
+            SearchIndex index = new SearchIndex(buffer, buffer.getInt(BASE_SLOT_COUNT_OFFSET),
+                    buffer.getInt(TERM_COUNT_OFFSET));
+            return index.replayChanges() ? index : null;
+        } catch (IOException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the header at the start of the buffer is intact and stamped with the current task file.
+     *
+     * @param header   The buffer holding the header.
+     * @param taskFile The task file the index belongs to.
+     * @return true if the index matches the task file, false otherwise.
+     */
+    private static boolean isCurrent(ByteBuffer header, File taskFile) {
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && header.getInt(CRC_OFFSET) == checksum(header)
+                && header.getLong(TASK_FILE_LENGTH_OFFSET) == taskFile.length()
+                && header.getLong(TASK_FILE_MODIFIED_OFFSET) == taskFile.lastModified();
+    }
+
+    /**
+     * Returns the CRC32C checksum of the header, up to the checksum itself.
+     *
+     * @param header The buffer holding the header.
+     * @return The checksum.
+     */
+    private static int checksum(ByteBuffer header) {
+        CRC32C crc = new CRC32C();
+        crc.update(header.duplicate().position(0).limit(CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Applies the batches of changes appended after the term table, in the order they were saved.
+     *
+     * @return true if the changes leave the number of tasks recorded in the header, false otherwise.
+     */
+    private boolean replayChanges() {
+        int position = (int) buffer.getLong(BASE_END_OFFSET);
+        int deltaEnd = (int) buffer.getLong(DELTA_END_OFFSET);
+        int[] replayedSlots = new int[0];
+        int deletedCount = 0;
+        while (position < deltaEnd) {
+            int batchDeletedCount = buffer.getInt(position);
+            position += Integer.BYTES;
+            if (deletedCount + batchDeletedCount > replayedSlots.length) {
+                replayedSlots = Arrays.copyOf(replayedSlots, Math.max(16, 2 * (deletedCount + batchDeletedCount)));
+            }
+            for (int i = 0; i < batchDeletedCount; i++) {
+                replayedSlots[deletedCount++] = buffer.getInt(position);
+                position += Integer.BYTES;
+            }
+            int addedCount = buffer.getInt(position);
+            position += Integer.BYTES;
+            for (int i = 0; i < addedCount; i++) {
+                int slot = nextSlot++;
+                int addedTermCount = buffer.getInt(position);
+                position += Integer.BYTES;
+                for (int j = 0; j < addedTermCount; j++) {
+                    byte[] bytes = new byte[buffer.getInt(position)];
+                    buffer.get(position + Integer.BYTES, bytes);
+                    position += Integer.BYTES + bytes.length;
+                    addPosting(new String(bytes, StandardCharsets.UTF_8), slot);
+                }
+            }
+        }
+
+        savedDeletedSlots = Arrays.copyOf(replayedSlots, deletedCount);
+        Arrays.sort(savedDeletedSlots);
+        if (nextSlot != buffer.getInt(SLOT_COUNT_OFFSET)
+                || nextSlot - deletedCount != buffer.getInt(COUNT_OFFSET)) {
+            return false;
+        }
+        for (int slot : savedDeletedSlots) {
+            deletedSlots.set(slot);
+        }
+        slotIds = new long[Math.max(16, nextSlot)];
+        Arrays.fill(slotIds, Task.NO_ID);
+        size = nextSlot - deletedCount;
+        return true;
+    }
+
+    /**
+     * Gives the live slots of a saved index the ids of the loaded tasks, in list order.
+     * A deleted slot takes the id of the live slot before it, so the ids never fall as the slots rise,
+     * and the first slot holding an id is always the live one.
+     *
+     * @param tasks The loaded tasks, in list order, one for each live slot.
+     */
+    synchronized void bindIds(List<Task> tasks) {
+        assert tasks.size() == size : "There should be one task for each live slot.";
+        Iterator<Task> iterator = tasks.iterator();
+        long id = Task.NO_ID;
+        for (int slot = 0; slot < nextSlot; slot++) {
+            if (!deletedSlots.get(slot)) {
+                id = iterator.next().getId();
+            }
+            slotIds[slot] = id;
+        }
+    }
+
+    /**
+     * Returns the slots deleted by the batches of changes in the index file when it was opened, in ascending order.
+     * They are needed to turn the positions of later deletions into slots when the next changes are saved.
+     *
+     * @return The deleted slots.
+     */
+    int[] getSavedDeletedSlots() {
+        return savedDeletedSlots;
+    }
+
+    /**
+     * Writes an index of the provided tasks to the specified path, stamped with the current state of the task file.
+     * The index is written to a temporary file first and then moved into place.
+     *
+     * @param indexPath    The path to the index file.
+     * @param taskFilePath The path to the task file the tasks were just saved to.
+     * @param tasks        The tasks in the task file, in list order.
+     * @throws IOException If the index cannot be written.
+     */
+    public static void write(String indexPath, String taskFilePath, List<Task> tasks) throws IOException {
+        assert indexPath != null && taskFilePath != null : "File paths should not be null.";
+        assert tasks != null : "Task list should not be null.";
+        TreeMap<String, List<Integer>> postings = new TreeMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            for (String term : getLowerCaseTerms(tasks.get(i).getLowerCaseDescription())) {
+                List<Integer> slotList = postings.computeIfAbsent(term, key -> new ArrayList<>());
+                if (slotList.isEmpty() || slotList.get(slotList.size() - 1) != i) {
+                    slotList.add(i);
+                }
+            }
+        }
+
+        List<byte[]> termBytes = new ArrayList<>(postings.size());
+        long termHeapSize = 0;
+        long postingCount = 0;
+        for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+            byte[] bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            termBytes.add(bytes);
+            termHeapSize += bytes.length;
+            postingCount += entry.getValue().size();
+        }
+        long termHeapStart = HEADER_SIZE + (long) postings.size() * TERM_ENTRY_SIZE;
+        long postingStart = termHeapStart + termHeapSize;
+        long fileSize = postingStart + postingCount * Integer.BYTES;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Too many terms to be written into a search index");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) fileSize);
+        out.putInt(BASE_SLOT_COUNT_OFFSET, tasks.size());
+        out.putInt(TERM_COUNT_OFFSET, postings.size());
+        out.putLong(BASE_END_OFFSET, fileSize);
+        writeHeader(out, new File(taskFilePath), tasks.size(), tasks.size(), fileSize);
+        int entry = 0;
+        int termOffset = (int) termHeapStart;
+        int postingOffset = (int) postingStart;
+        for (List<Integer> slotList : postings.values()) {
+            byte[] bytes = termBytes.get(entry);
+            int entryPosition = HEADER_SIZE + entry * TERM_ENTRY_SIZE;
+            out.putInt(entryPosition, termOffset);
+            out.putInt(entryPosition + 4, bytes.length);
+            out.putInt(entryPosition + 8, postingOffset);
+            out.putInt(entryPosition + 12, slotList.size());
+            out.put(termOffset, bytes);
+            for (int slot : slotList) {
+                out.putInt(postingOffset, slot);
+                postingOffset += Integer.BYTES;
+            }
+            termOffset += bytes.length;
+            entry++;
+        }
+
+        Path temp = Paths.get(indexPath + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, Paths.get(indexPath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Saves the changes made to the task list since the index file was last written, by appending them as a batch
+     * and then stamping the header with the task file they were just saved to.
+     * The slots of the deleted tasks are found from the slots deleted so far, which are kept by the caller
+     * between updates so that the index file need not be read.
+     *
+     * @param indexPath    The path to the index file.
+     * @param taskFilePath The path to the task file the changes were just saved to.
+     * @param changes      The changes taken from the task list.
+     * @param deletedSlots The slots deleted from the index file so far, in ascending order.
+     * @return The slots deleted from the index file after the update, or null if it must be written in full instead.
+     * @throws IOException If the index file cannot be updated.
+     */
+    public static int[] update(String indexPath, String taskFilePath, TaskChanges changes, int[] deletedSlots)
+            throws IOException {
+        assert indexPath != null && taskFilePath != null : "File paths should not be null.";
+        assert changes != null && deletedSlots != null : "Changes and deleted slots should not be null.";
+        try (FileChannel channel = FileChannel.open(Paths.get(indexPath), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                    || header.getInt(CRC_OFFSET) != checksum(header)) {
+                return null;
+            }
+            int slotCount = header.getInt(SLOT_COUNT_OFFSET);
+            int savedCount = header.getInt(COUNT_OFFSET);
+            long baseEnd = header.getLong(BASE_END_OFFSET);
+            long deltaEnd = header.getLong(DELTA_END_OFFSET);
+            if (slotCount - savedCount != deletedSlots.length) {
+                return null;
+            }
+
+            List<Task> tasks = changes.getTasks();
+            List<Integer> deletedIndices = changes.getDeletedIndices();
+            int[] slots = Arrays.copyOf(deletedSlots, deletedSlots.length + deletedIndices.size());
+            int slotsUsed = deletedSlots.length;
+            List<Integer> batchDeletedSlots = new ArrayList<>();
+            for (int index : deletedIndices) {
+                if (index >= savedCount) {
+                    continue;
+                }
+                int slot = BinaryTaskFile.findSlot(slots, slotsUsed, index);
+                int insertAt = -Arrays.binarySearch(slots, 0, slotsUsed, slot) - 1;
+                System.arraycopy(slots, insertAt, slots, insertAt + 1, slotsUsed - insertAt);
+                slots[insertAt] = slot;
+                slotsUsed++;
+                batchDeletedSlots.add(slot);
+                savedCount--;
+            }
+
+            if (savedCount > tasks.size()) {
+                return null;
+            }
+            List<List<byte[]>> addedTerms = new ArrayList<>();
+            long batchSize = 2L * Integer.BYTES + (long) batchDeletedSlots.size() * Integer.BYTES;
+            for (Task task : tasks.subList(savedCount, tasks.size())) {
+                List<byte[]> terms = new ArrayList<>();
+                for (String term : getLowerCaseTerms(task.getLowerCaseDescription())) {
+                    byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+                    terms.add(bytes);
+                    batchSize += Integer.BYTES + bytes.length;
+                }
+                addedTerms.add(terms);
+                batchSize += Integer.BYTES;
+            }
+            long newDeltaEnd = deltaEnd + batchSize;
+            if (newDeltaEnd - baseEnd > Math.max(MIN_DELTA_SIZE, baseEnd) || newDeltaEnd > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            ByteBuffer batch = ByteBuffer.allocate((int) batchSize);
+            batch.putInt(batchDeletedSlots.size());
+            for (int slot : batchDeletedSlots) {
+                batch.putInt(slot);
+            }
+            batch.putInt(addedTerms.size());
+            for (List<byte[]> terms : addedTerms) {
+                batch.putInt(terms.size());
+                for (byte[] bytes : terms) {
+                    batch.putInt(bytes.length);
+                    batch.put(bytes);
+                }
+            }
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch, deltaEnd + batch.position());
+            }
+            channel.truncate(newDeltaEnd);
+            channel.force(false);
+
+            writeHeader(header, new File(taskFilePath), slotCount + addedTerms.size(), tasks.size(), newDeltaEnd);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(false);
+            return Arrays.copyOf(slots, slotsUsed);
+        }
+    }
+
+    /**
+     * Fills in the parts of the header which change with every save, stamping it with the current task file,
+     * and then its checksum.
+     *
+     * @param header    The buffer holding the header, whose term table fields are already filled in.
+     * @param taskFile  The task file the index belongs to.
+     * @param slotCount The number of slots ever given out, including deleted ones.
+     * @param count     The number of tasks in the index.
+     * @param deltaEnd  The end of the last batch of changes.
+     */
+    private static void writeHeader(ByteBuffer header, File taskFile, int slotCount, int count, long deltaEnd) {
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putLong(TASK_FILE_LENGTH_OFFSET, taskFile.length());
+        header.putLong(TASK_FILE_MODIFIED_OFFSET, taskFile.lastModified());
+        header.putInt(SLOT_COUNT_OFFSET, slotCount);
+        header.putInt(COUNT_OFFSET, count);
+        header.putLong(DELTA_END_OFFSET, deltaEnd);
+        header.putInt(CRC_OFFSET, checksum(header));
+    }
+
+    /**
+     * Splits a description into its lowercased terms.
+     *
+     * @param text The text to split.
+     * @return The terms in the text, which may repeat.
+     */
+    static List<String> getTerms(String text) {
+        return getLowerCaseTerms(text.toLowerCase());
+    }
+
+    /**
+     * Splits text which is already lowercased, such as a task's cached lowercase description, into its terms.
+     *
+     * @param lowerCaseText The lowercased text to split.
+     * @return The terms in the text, which may repeat.
+     */
+    private static List<String> getLowerCaseTerms(String lowerCaseText) {
+        List<String> terms = new ArrayList<>();
+        for (String term : lowerCaseText.split(TERM_DELIMITER)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Returns the number of tasks in the index.
+     *
+     * @return The number of tasks.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Indexes a task added to the end of the list.
+     *
+     * @param task The task that was added.
+     */
+    public synchronized void addTask(Task task) {
+        assert task != null : "Task should not be null.";
+        int slot = nextSlot++;
+        for (String term : getLowerCaseTerms(task.getLowerCaseDescription())) {
+            addPosting(term, slot);
+        }
+        if (slot == slotIds.length) {
+            slotIds = Arrays.copyOf(slotIds, slot * 2);
+        }
+        slotIds[slot] = task.getId();
+        size++;
+    }
+
+    /**
+     * Adds a slot to the posting list of an added term, unless the slot is already at its end.
+     *
+     * @param term The term.
+     * @param slot The slot of the task containing the term.
+     */
+    private void addPosting(String term, int slot) {
+        List<Integer> slotList = addedPostings.computeIfAbsent(term, key -> new ArrayList<>());
+        if (slotList.isEmpty() || slotList.get(slotList.size() - 1) != slot) {
+            slotList.add(slot);
+        }
+    }
+
+    /**
+     * Forgets the task with the specified id in O(log n) time, by marking its slot as deleted.
+     *
+     * @param id The id of the deleted task.
+     */
+    public synchronized void deleteTask(long id) {
+        int low = 0;
+        int high = nextSlot;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (slotIds[middle] < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        assert low < nextSlot && slotIds[low] == id && !deletedSlots.get(low) : "The task should be in the index.";
+        deletedSlots.set(low);
+        size--;
+    }
+
+    /**
+     * Finds the ids of the tasks that may contain the specified keyword in their descriptions.
+     *
+     * @param keyword The keyword to search for.
+     * @return The candidate ids in list order, or null if the keyword cannot be narrowed down.
+     */
+    public synchronized long[] findCandidates(String keyword) {
+        assert keyword != null : "Search keyword should not be null.";
+        String lowerCaseKeyword = keyword.toLowerCase();
+        List<String> pieces = getLowerCaseTerms(lowerCaseKeyword);
+        if (pieces.isEmpty()) {
+            return null;
+        }
+
+        boolean isFirstPieceWhole = !isTermCharacter(lowerCaseKeyword.codePointAt(0));
+        boolean isLastPieceWhole = !isTermCharacter(lowerCaseKeyword.codePointBefore(lowerCaseKeyword.length()));
+        int[] candidates = null;
+        for (int i = 0; i < pieces.size(); i++) {
+            if (i == 0 && !isFirstPieceWhole) {
+                continue;
+            }
+            boolean isWholeTerm = i < pieces.size() - 1 || isLastPieceWhole;
+            int[] pieceSlots = isWholeTerm ? getWordSlots(pieces.get(i)) : getPrefixSlots(pieces.get(i));
+            candidates = candidates == null ? pieceSlots : intersect(candidates, pieceSlots);
+        }
+        return candidates == null ? null : toIds(candidates);
+    }
+
+    /**
+     * Returns whether a character is part of a term rather than a delimiter.
+     *
+     * @param codePoint The character.
+     * @return true if the character is a letter or a number, false otherwise.
+     */
+    private static boolean isTermCharacter(int codePoint) {
+        int type = Character.getType(codePoint);
+        return Character.isLetter(codePoint) || type == Character.DECIMAL_DIGIT_NUMBER
+                || type == Character.LETTER_NUMBER || type == Character.OTHER_NUMBER;
+    }
+
+    /**
+     * Returns the slots of the tasks containing a term that starts with the prefix, from the ranges of the sorted
+     * saved and added terms that start with it.
+     *
+     * @param prefix The lowercased prefix.
+     * @return The slots in ascending order, without repeats.
+     */
+    private int[] getPrefixSlots(String prefix) {
+        List<Integer> prefixSlots = new ArrayList<>();
+        String[] terms = getSavedTerms();
+        int first = Arrays.binarySearch(terms, prefix);
+        for (int term = first >= 0 ? first : -first - 1; term < terms.length && terms[term].startsWith(prefix);
+                term++) {
+            int entryPosition = HEADER_SIZE + term * TERM_ENTRY_SIZE;
+            int postingOffset = buffer.getInt(entryPosition + 8);
+            int postingCount = buffer.getInt(entryPosition + 12);
+            for (int j = 0; j < postingCount; j++) {
+                prefixSlots.add(buffer.getInt(postingOffset + j * Integer.BYTES));
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : addedPostings.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            prefixSlots.addAll(entry.getValue());
+        }
+        return prefixSlots.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+
+    /**
+     * Turns the slots of tasks into the ids of the tasks, skipping the slots of deleted tasks.
+     *
+     * @param matches The slots in ascending order.
+     * @return The ids in list order.
+     */
+    private long[] toIds(int[] matches) {
+        long[] ids = new long[matches.length];
+        int count = 0;
+        for (int slot : matches) {
+            if (!deletedSlots.get(slot)) {
+                ids[count++] = slotIds[slot];
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Finds the ids of the tasks whose descriptions contain all, or any, of the specified words.
+     *
+     * @param words      The lowercased words to look up, as returned by {@link #getTerms(String)}.
+     * @param isMatchAll Whether a task must contain every word, rather than any of them.
+     * @return The matching ids in list order.
+     */
+    public synchronized long[] findWordMatches(List<String> words, boolean isMatchAll) {
+        assert words != null && !words.isEmpty() : "Words should not be null or empty.";
+        int[] matches = null;
+        for (String word : words) {
+            int[] wordSlots = getWordSlots(word);
+            if (matches == null) {
+                matches = wordSlots;
+            } else {
+                matches = isMatchAll ? intersect(matches, wordSlots) : union(matches, wordSlots);
+            }
+        }
+        return toIds(matches);
+    }
+
+    /**
+     * Returns the slots of the tasks containing a word, including tasks that have since been deleted.
+     * Saved slots are all lower than added slots, so the two posting lists join in ascending order.
+     *
+     * @param word The lowercased word.
+     * @return The slots in ascending order.
+     */
+    private int[] getWordSlots(String word) {
+        int savedTermCount = 0;
+        int postingOffset = 0;
+        int term = Arrays.binarySearch(getSavedTerms(), word);
+        if (term >= 0) {
+            int entryPosition = HEADER_SIZE + term * TERM_ENTRY_SIZE;
+            postingOffset = buffer.getInt(entryPosition + 8);
+            savedTermCount = buffer.getInt(entryPosition + 12);
+        }
+        List<Integer> added = addedPostings.getOrDefault(word, List.of());
+
+        int[] wordSlots = new int[savedTermCount + added.size()];
+        for (int i = 0; i < savedTermCount; i++) {
+            wordSlots[i] = buffer.getInt(postingOffset + i * Integer.BYTES);
+        }
+        for (int i = 0; i < added.size(); i++) {
+            wordSlots[savedTermCount + i] = added.get(i);
+        }
+        return wordSlots;
+    }
+
+    /**
+     * Returns the slots found in both sorted posting lists.
+     *
+     * @param first  The first posting list.
+     * @param second The second posting list.
+     * @return The common slots in ascending order.
+     */
+    private static int[] intersect(int[] first, int[] second) {
+        int[] common = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < first.length && j < second.length;) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, count);
+    }
+
+    /**
+     * Returns the slots found in either sorted posting list.
+     *
+     * @param first  The first posting list.
+     * @param second The second posting list.
+     * @return The slots of both lists in ascending order, without repeats.
+     */
+    private static int[] union(int[] first, int[] second) {
+        int[] all = new int[first.length + second.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            if (j == second.length || (i < first.length && first[i] < second[j])) {
+                all[count++] = first[i++];
+            } else if (i == first.length || first[i] > second[j]) {
+                all[count++] = second[j++];
+            } else {
+                all[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(all, count);
+    }
+
+    /**
+     * Returns the terms of the saved index, decoding them on first use.
+     *
+     * @return The saved terms, in the order of the term table.
+     */
+    private String[] getSavedTerms() {
+        if (savedTerms == null) {
+            savedTerms = new String[termCount];
+            for (int i = 0; i < termCount; i++) {
+                int entryPosition = HEADER_SIZE + i * TERM_ENTRY_SIZE;
+                byte[] bytes = new byte[buffer.getInt(entryPosition + 4)];
+                buffer.get(buffer.getInt(entryPosition), bytes);
+                savedTerms[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return savedTerms;
+    }
+}
@@ -0,0 +1,466 @@
+package myapp.quirkbot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * ShardedStorage class which stores tasks in a directory of shard files partitioned by month.
+ * Deadlines are stored in the shard for the month of their deadline and events within one month in the shard
+ * for that month, such as "2024-09", while ToDos and tasks without a date are stored in the "undated" shard.
+ * Events spanning several months are kept together in the "spanning" shard, so that every task is stored once
+ * however long it lasts. Each line holds the id of the task followed by the task in the " | " separated text format,
+ * so the full list can be put back together in order, while a date range only needs the shards for the months
+ * it covers that hold any tasks, together with the spanning shard.
+ * Tasks keep their ids across saves and loads, so a change only alters the shards holding the changed task.
+ * <p>
+ * Shard files are never overwritten. Each save writes the shards whose contents changed to new files named
+ * after the save's generation, such as "2024-09.7.txt", and then commits them by replacing the manifest,
+ * which lists the file and checksum of every shard. Files no longer listed are deleted after the commit,
+ * so a crash part way through a save leaves the previous set of shards intact.
+ */
+public class ShardedStorage implements StorageBackend {
+    static final String UNDATED_SHARD = "undated";
+    static final String SPANNING_SHARD = "spanning";
+
+    private static final String SHARD_SUFFIX = ".txt";
+    private static final String MANIFEST_NAME = "manifest";
+    private static final String GENERATION_PREFIX = "generation ";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String SEPARATOR = " | ";
+
+    private final String directoryPath;
+    private TreeMap<String, ShardFile> shardFiles;
+    private long generation;
+
+    /**
+     * Constructs a ShardedStorage object which keeps its shard files in the specified directory.
+     *
+     * @param directoryPath The path to the directory holding the shard files.
+     */
+    public ShardedStorage(String directoryPath) {
+        assert directoryPath != null && !directoryPath.trim().isEmpty() : "Directory path should not be null.";
+        this.directoryPath = directoryPath;
+    }
+
+    /**
+     * Returns the name of the shard a task is stored in, without the file suffix.
+     *
+     * @param task The task.
+     * @return The year and month the task falls in, such as "2024-09", "spanning" if it spans several months,
+     *         or "undated" if it has no date.
+     */
+    static String getShardName(Task task) {
+        LocalDateTime start = task.getStartDate();
+        if (start == null) {
+            return UNDATED_SHARD;
+        }
+        YearMonth month = YearMonth.from(start);
+        return month.equals(YearMonth.from(task.getEndDate())) ? month.toString() : SPANNING_SHARD;
+    }
+
+    /**
+     * Returns whether a shard holds the tasks of a month between the specified months.
+     *
+     * @param name      The name of the shard.
+     * @param fromMonth The first month of the range.
+     * @param toMonth   The last month of the range.
+     * @return true if the shard is a month shard within the range, false otherwise.
+     */
+    private static boolean isMonthBetween(String name, YearMonth fromMonth, YearMonth toMonth) {
+        if (name.equals(UNDATED_SHARD) || name.equals(SPANNING_SHARD)) {
+            return false;
+        }
+        try {
+            YearMonth month = YearMonth.parse(name);
+            return !month.isBefore(fromMonth) && !month.isAfter(toMonth);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether a task is dated within the specified range, meaning a Deadline due in it,
+     * or an Event overlapping it.
+     *
+     * @param task The task.
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return true if the task is dated within the range, false otherwise.
+     */
+    static boolean isDatedBetween(Task task, LocalDate from, LocalDate to) {
+        LocalDateTime start = task.getStartDate();
+        return start != null && !start.toLocalDate().isAfter(to) && !task.getEndDate().toLocalDate().isBefore(from);
+    }
+
+    /**
+     * Loads the tasks from every shard into the provided list, in the order they were saved.
+     * Each task keeps the id it was saved with.
+     *
+     * @param taskList The list to which tasks will be added.
+     */
+    @Override
+    public synchronized void loadTasks(ArrayList<Task> taskList) {
+        assert taskList != null : "Task list should not be null.";
+        TreeMap<Long, Task> tasksById = new TreeMap<>();
+        try {
+            shardFiles = readManifest();
+            for (ShardFile shardFile : shardFiles.values()) {
+                readShard(getFile(shardFile.fileName), tasksById);
+            }
+        } catch (IOException e) {
+            shardFiles = null;
+            System.out.println("An error occurred while loading tasks from file.");
+        }
+        taskList.addAll(tasksById.values());
+    }
+
+    /**
+     * Loads every task into the provided task list at once.
+     * The shards have to be merged by id before the first page is known, so there is nothing to page.
+     *
+     * @param taskList The task list to which tasks will be added.
+     * @param pageSize The number of tasks loaded at a time, which is ignored.
+     */
+    @Override
+    public void loadTasksInPages(TaskList taskList, int pageSize) {
+        assert taskList != null : "Task list should not be null.";
+        ArrayList<Task> tasks = new ArrayList<>();
+        loadTasks(tasks);
+        taskList.appendLoadedTasks(tasks);
+    }
+
+    /**
+     * Loads the Deadlines due and the Events taking place between the specified dates, in the order they were saved.
+     * Only the spanning shard and the shards for the months between the dates are read, so the time taken
+     * does not depend on how many months the range covers.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return The tasks dated within the range.
+     */
+    public synchronized List<Task> loadTasksBetween(LocalDate from, LocalDate to) {
+        assert from != null && to != null : "Dates should not be null.";
+        TreeMap<Long, Task> tasksById = new TreeMap<>();
+        try {
+            YearMonth fromMonth = YearMonth.from(from);
+            YearMonth toMonth = YearMonth.from(to);
+            for (Map.Entry<String, ShardFile> shard : getShardFiles().entrySet()) {
+                if (shard.getKey().equals(SPANNING_SHARD) || isMonthBetween(shard.getKey(), fromMonth, toMonth)) {
+                    readShard(getFile(shard.getValue().fileName), tasksById);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while loading tasks from file.");
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        for (Task task : tasksById.values()) {
+            if (isDatedBetween(task, from, to)) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Saves the provided tasks, writing only the shards whose contents changed and committing them
+     * with a new manifest. Tasks without an id, or whose id is out of order, are given the next free key.
+     *
+     * @param taskList The tasks to be saved.
+     */
+    @Override
+    public synchronized void saveTasks(ArrayList<Task> taskList) {
+        assert taskList != null : "Task list should not be null.";
+        Map<String, StringBuilder> contents = new TreeMap<>();
+        long previousKey = -1;
+        for (Task task : taskList) {
+            long key = task.getId() > previousKey ? task.getId() : previousKey + 1;
+            previousKey = key;
+            String line = key + SEPARATOR + task.toFileFormat() + System.lineSeparator();
+            contents.computeIfAbsent(getShardName(task), shardName -> new StringBuilder()).append(line);
+        }
+
+        try {
+            Files.createDirectories(Paths.get(directoryPath));
+            TreeMap<String, ShardFile> committedShards = getShardFiles();
+            TreeMap<String, ShardFile> nextShards = new TreeMap<>();
+            long nextGeneration = generation + 1;
+            boolean isChanged = !committedShards.keySet().equals(contents.keySet());
+            for (Map.Entry<String, StringBuilder> shard : contents.entrySet()) {
+                byte[] bytes = shard.getValue().toString().getBytes(StandardCharsets.UTF_8);
+                long checksum = checksum(bytes);
+                ShardFile committed = committedShards.get(shard.getKey());
+                if (committed != null && committed.checksum == checksum) {
+                    nextShards.put(shard.getKey(), committed);
+                    continue;
+                }
+                String fileName = shard.getKey() + "." + nextGeneration + SHARD_SUFFIX;
+                writeShard(getFile(fileName), bytes);
+                nextShards.put(shard.getKey(), new ShardFile(fileName, checksum));
+                isChanged = true;
+            }
+            if (!isChanged) {
+                return;
+            }
+            Storage.syncDirectory(getFile(MANIFEST_NAME).toPath());
+            writeManifest(nextGeneration, nextShards);
+            shardFiles = nextShards;
+            generation = nextGeneration;
+            deleteUnlistedShards();
+        } catch (IOException e) {
+            shardFiles = null;
+            System.out.println("An error occurred while saving tasks to file.");
+        }
+    }
+
+    /**
+     * Saves the tasks in the task list, rewriting only the shards whose contents changed.
+     *
+     * @param taskList The task list whose changes will be saved.
+     */
+    @Override
+    public synchronized void saveChanges(TaskList taskList) {
+        assert taskList != null : "Task list should not be null.";
+        saveTasks(taskList.takeChanges().getTasks());
+    }
+
+    /**
+     * Saves the tasks in the task list, since there is nothing else to do on exit.
+     *
+     * @param taskList The task list whose changes will be saved.
+     */
+    @Override
+    public void saveOnExit(TaskList taskList) {
+        saveChanges(taskList);
+    }
+
+    /**
+     * Does nothing, since changes are only written when the tasks are saved.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Does nothing, since the task is saved with the rest of the list.
+     *
+     * @param task The task that was added.
+     */
+    @Override
+    public void recordAdd(Task task) {
+    }
+
+    /**
+     * Does nothing, since the deletion is saved with the rest of the list.
+     *
+     * @param index The zero-based index of the deleted task.
+     */
+    @Override
+    public void recordDelete(int index) {
+    }
+
+    /**
+     * Does nothing, since the task is saved with the rest of the list.
+     *
+     * @param index The zero-based index of the marked task.
+     */
+    @Override
+    public void recordMark(int index) {
+    }
+
+    /**
+     * Does nothing, since the task is saved with the rest of the list.
+     *
+     * @param index The zero-based index of the unmarked task.
+     */
+    @Override
+    public void recordUnmark(int index) {
+    }
+
+    /**
+     * Returns the file with the specified name in the shard directory.
+     *
+     * @param fileName The name of the file.
+     * @return The file.
+     */
+    private File getFile(String fileName) {
+        return new File(directoryPath, fileName);
+    }
+
+    /**
+     * Returns the committed shards, reading the manifest if it has not been read yet.
+     *
+     * @return The committed shard files, keyed by shard name.
+     * @throws IOException If the manifest cannot be read.
+     */
+    private TreeMap<String, ShardFile> getShardFiles() throws IOException {
+        if (shardFiles == null) {
+            shardFiles = readManifest();
+        }
+        return shardFiles;
+    }
+
+    /**
+     * Reads the manifest listing the committed shards, and the generation of the save that wrote it.
+     * A directory saved before the manifest was introduced holds one unversioned file per shard,
+     * which are listed instead, with unknown checksums so that they are rewritten on the next save.
+     *
+     * @return The committed shard files, keyed by shard name.
+     * @throws IOException If the manifest cannot be read or is malformed.
+     */
+    private TreeMap<String, ShardFile> readManifest() throws IOException {
+        TreeMap<String, ShardFile> shards = new TreeMap<>();
+        File manifest = getFile(MANIFEST_NAME);
+        generation = 0;
+        if (!manifest.exists()) {
+            File[] files = new File(directoryPath).listFiles((directory, name) -> name.endsWith(SHARD_SUFFIX)
+                    && name.indexOf('.') == name.length() - SHARD_SUFFIX.length());
+            for (File file : files == null ? new File[0] : files) {
+                String name = file.getName();
+                shards.put(name.substring(0, name.length() - SHARD_SUFFIX.length()), new ShardFile(name, -1));
+            }
+            return shards;
+        }
+
+        List<String> lines = Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8);
+        try {
+            generation = Long.parseLong(lines.get(0).substring(GENERATION_PREFIX.length()));
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split(" \\| ");
+                shards.put(fields[0], new ShardFile(fields[1], Long.parseLong(fields[2])));
+            }
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IOException("Malformed shard manifest", e);
+        }
+        return shards;
+    }
+
+    /**
+     * Commits a set of shards by writing the manifest to a temporary file, syncing it,
+     * and moving it into place.
+     *
+     * @param nextGeneration The generation of the save.
+     * @param shards         The shard files, keyed by shard name.
+     * @throws IOException If the manifest cannot be written.
+     */
+    private void writeManifest(long nextGeneration, Map<String, ShardFile> shards) throws IOException {
+        StringBuilder manifest = new StringBuilder(GENERATION_PREFIX + nextGeneration + System.lineSeparator());
+        for (Map.Entry<String, ShardFile> shard : shards.entrySet()) {
+            manifest.append(shard.getKey()).append(SEPARATOR).append(shard.getValue().fileName).append(SEPARATOR)
+                    .append(shard.getValue().checksum).append(System.lineSeparator());
+        }
+        File temp = getFile(MANIFEST_NAME + TEMP_SUFFIX);
+        writeShard(temp, manifest.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp.toPath(), getFile(MANIFEST_NAME).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Storage.syncDirectory(getFile(MANIFEST_NAME).toPath());
+    }
+
+    /**
+     * Deletes the shard files that the manifest no longer lists, such as the files replaced by the last save
+     * or files left behind by a save that was interrupted before it was committed.
+     */
+    private void deleteUnlistedShards() {
+        List<String> listedFiles = new ArrayList<>();
+        for (ShardFile shardFile : shardFiles.values()) {
+            listedFiles.add(shardFile.fileName);
+        }
+        File[] files = new File(directoryPath).listFiles((directory, name) -> name.endsWith(SHARD_SUFFIX)
+                && !listedFiles.contains(name));
+        for (File file : files == null ? new File[0] : files) {
+            if (!file.delete()) {
+                System.out.println("An error occurred while deleting an old shard file.");
+            }
+        }
+    }
+
+    /**
+     * Computes the CRC32C checksum of the contents of a shard.
+     *
+     * @param bytes The contents of the shard.
+     * @return The checksum.
+     */
+    private static long checksum(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Reads every task in a shard file, keyed by id. A directory saved before spanning events were kept apart
+     * holds such an event in every month it spans, so a task already read is kept once.
+     * Malformed lines are reported and skipped.
+     *
+     * @param shard     The shard file.
+     * @param tasksById The map to which the tasks will be added.
+     * @throws IOException If the file cannot be read.
+     */
+    private static void readShard(File shard, Map<Long, Task> tasksById) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(shard),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separatorIndex = line.indexOf(SEPARATOR);
+                if (separatorIndex < 0) {
+                    System.out.println("Skipping a malformed shard record: " + line);
+                    continue;
+                }
+                Task task = Storage.parseStoredTask(line.substring(separatorIndex + SEPARATOR.length()));
+                if (task == null) {
+                    continue;
+                }
+                try {
+                    task.setId(Long.parseLong(line.substring(0, separatorIndex)));
+                    tasksById.putIfAbsent(task.getId(), task);
+                } catch (NumberFormatException e) {
+                    System.out.println("Skipping a malformed shard record: " + line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the contents of a file and syncs it to disk.
+     * Shard files are written under a name that no committed manifest refers to, so they need no temporary file.
+     *
+     * @param file  The file.
+     * @param bytes The contents to be written.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeShard(File file, byte[] bytes) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(file)) {
+            stream.write(bytes);
+            stream.getChannel().force(false);
+        }
+    }
+
+    /**
+     * ShardFile class which pairs the file holding a shard with the checksum of its contents.
+     */
+    private static class ShardFile {
+        private final String fileName;
+        private final long checksum;
+
+        ShardFile(String fileName, long checksum) {
+            this.fileName = fileName;
+            this.checksum = checksum;
+        }
+    }
+}
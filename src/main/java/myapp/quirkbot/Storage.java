@@ -1,16 +1,60 @@
 package myapp.quirkbot;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Storage class which loads and saves task from the specified file
+ * Storage class which loads and saves task from the specified file.
+ * This is the file-based {@link StorageBackend}, optionally with a journal that records each mutation.
+ * Tasks are saved in the preferred format, which is either the fixed-layout {@link BinaryTaskFile} format,
+ * the block-compressed {@link CompressedTaskFile} format, or the " | " separated text format.
+ * The format of an existing file is detected from its header when it is loaded, and a file in another format,
+ * such as a legacy text file, is migrated to the preferred format in the background once it has been loaded.
+ * A {@link SearchIndex} is saved next to the task file whenever the tasks are saved,
+ * and is read when the tasks are next loaded into a task list, unless the journal has changed them.
+ * Once written, the index is kept up to date by appending the changes taken by each save.
+ * After a clean exit, a {@link TaskSnapshotCache} of the decoded tasks is also written next to the task file,
+ * and is loaded instead of the task file on the next launch, which deletes it as it is read.
+ * Large text files are loaded in parallel by a {@link ParallelTaskLoader},
+ * and the blocks of compressed files are always decompressed in parallel.
+ * In journal mode, each save first rotates the journal to a new segment and stores that segment's number
+ * in the snapshot as its checkpoint. The older segments are deleted only once the snapshot is durable,
+ * and segments below the checkpoint are skipped on load, so a crash in between never replays a record twice.
+ * The changes are taken and the journal is rotated in one step while holding the lock of the task list,
+ * which is also held while each mutation is made and recorded, so every record lands on the correct side
+ * of the checkpoint. Locks are always taken in the order: the compaction lock, the task list, then the journal.
  */
-public class Storage {
+public class Storage implements StorageBackend {
+    static final int DEFAULT_COMPACTION_THRESHOLD = 4;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String CACHE_SUFFIX = ".cache";
+    private static final long PARALLEL_LOAD_THRESHOLD = 4 * ParallelTaskLoader.MIN_CHUNK_SIZE;
+
+    private final Object compactionLock = new Object();
+    private final TaskEncoder encoder = new TaskEncoder();
     private String filePath;
+    private TaskFileFormat preferredFormat;
+    private volatile TaskFileFormat format;
+    private Journal journal;
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private Thread compactor;
+    private volatile boolean isSnapshotCurrent = false;
+    private int[] deletedSlots;
+    private int[] indexDeletedSlots;
 
     /**
      * Constructs a Storage object with the specified file path.
@@ -18,55 +62,721 @@ public class Storage {
      * @param filePath The path to the file where tasks are stored.
      */
     public Storage(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Constructs a Storage object with the specified file path, optionally in journal mode.
+     * In journal mode every mutation is appended to a journal file next to the task file,
+     * so changes survive a crash without rewriting the whole task file each time.
+     * Tasks are saved in the format matching the suffix of the file path.
+     *
+     * @param filePath      The path to the file where tasks are stored.
+     * @param isJournalMode Whether mutations should be appended to a journal as they happen.
+     */
+    public Storage(String filePath, boolean isJournalMode) {
+        this(filePath, TaskFileFormat.of(filePath), isJournalMode);
+    }
+
+    /**
+     * Constructs a Storage object which saves tasks in the specified format, optionally in journal mode.
+     *
+     * @param filePath        The path to the file where tasks are stored.
+     * @param preferredFormat The format in which tasks are saved.
+     * @param isJournalMode   Whether mutations should be appended to a journal as they happen.
+     */
+    public Storage(String filePath, TaskFileFormat preferredFormat, boolean isJournalMode) {
+        assert filePath != null && !filePath.trim().isEmpty() : "File path should not be null or empty.";
+        assert preferredFormat != null : "Preferred format should not be null.";
+        this.filePath = filePath;
+        this.preferredFormat = preferredFormat;
+        this.format = preferredFormat;
+        this.journal = isJournalMode ? new Journal(filePath + JOURNAL_SUFFIX) : null;
+    }
+
+    /**
+     * Constructs a Storage object in journal mode with the specified group commit and compaction settings.
+     * Journal records are committed by a background thread once per commit window,
+     * or sooner if the maximum batch size is reached.
+     * Once enough journal segments have been sealed, a background compactor folds them into the task file.
+     *
+     * @param filePath            The path to the file where tasks are stored.
+     * @param commitWindowMillis  How long to wait for more records before committing a batch.
+     * @param maxBatchSize        The maximum number of records committed together.
+     * @param maxSegmentBytes     The size at which a journal segment is sealed.
+     * @param compactionThreshold The number of sealed segments that triggers a compaction.
+     */
+    public Storage(String filePath, long commitWindowMillis, int maxBatchSize, long maxSegmentBytes,
+            int compactionThreshold) {
+        this(filePath, TaskFileFormat.of(filePath), commitWindowMillis, maxBatchSize, maxSegmentBytes,
+                compactionThreshold);
+    }
+
+    /**
+     * Constructs a Storage object in journal mode which saves tasks in the specified format,
+     * with the specified group commit and compaction settings.
+     *
+     * @param filePath            The path to the file where tasks are stored.
+     * @param preferredFormat     The format in which tasks are saved.
+     * @param commitWindowMillis  How long to wait for more records before committing a batch.
+     * @param maxBatchSize        The maximum number of records committed together.
+     * @param maxSegmentBytes     The size at which a journal segment is sealed.
+     * @param compactionThreshold The number of sealed segments that triggers a compaction.
+     */
+    public Storage(String filePath, TaskFileFormat preferredFormat, long commitWindowMillis, int maxBatchSize,
+            long maxSegmentBytes, int compactionThreshold) {
         assert filePath != null && !filePath.trim().isEmpty() : "File path should not be null or empty.";
+        assert preferredFormat != null : "Preferred format should not be null.";
+        assert compactionThreshold > 0 : "Compaction threshold should be positive.";
         this.filePath = filePath;
+        this.preferredFormat = preferredFormat;
+        this.format = preferredFormat;
+        this.journal = new Journal(filePath + JOURNAL_SUFFIX, commitWindowMillis, maxBatchSize, maxSegmentBytes);
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Parses a line in file format into the matching Task subclass.
+     *
+     * @param line The line representing a task, such as "T | 0 | read book".
+     * @return The Task represented by the line.
+     * @throws IllegalArgumentException If the line does not start with a known task type.
+     */
+    static Task parseTask(String line) {
+        assert line != null : "Line read from file should not be null.";
+        if (line.startsWith("T")) {
+            return ToDo.parseTask(line);
+        } else if (line.startsWith("D")) {
+            return Deadline.parseTask(line);
+        } else if (line.startsWith("E")) {
+            return Event.parseTask(line);
+        } else {
+            throw new IllegalArgumentException("Unknown task type");
+        }
+    }
+
+    /**
+     * Parses a line read from a task file, skipping the line if it cannot be parsed.
+     * Snapshots are moved into place atomically and so are never torn by a crash, but a line can still be damaged
+     * on disk or by hand, and it should cost only its own task rather than every task after it.
+     * The skipped line is reported, and is dropped from the task file by the next full save.
+     *
+     * @param line The line representing a task.
+     * @return The Task represented by the line, or null if the line is malformed.
+     */
+    static Task parseStoredTask(String line) {
+        try {
+            return parseTask(line);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            System.out.println("Skipping a malformed task in the task file: " + line);
+            return null;
+        }
     }
 
     /**
      * Loads tasks from the file into the provided list.
+     * In journal mode, the journal is replayed on top of the loaded tasks.
      *
      * @param taskList The list to which tasks will be added.
      */
+    @Override
     public void loadTasks(ArrayList<Task> taskList) {
         assert taskList != null : "Task list should not be null.";
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                assert line != null : "Line read from file should not be null.";
-                Task task;
-                if (line.startsWith("T")) {
-                    task = ToDo.parseTask(line);
-                } else if (line.startsWith("D")) {
-                    task = Deadline.parseTask(line);
-                } else if (line.startsWith("E")) {
-                    task = Event.parseTask(line);
+        synchronized (compactionLock) {
+            format = TaskFileFormat.detect(filePath, preferredFormat);
+            deletedSlots = null;
+            indexDeletedSlots = null;
+            boolean isLoaded = false;
+            int checkpoint = 0;
+            try {
+                checkpoint = readJournalCheckpoint();
+                ArrayList<Task> cachedTasks = TaskSnapshotCache.consume(filePath + CACHE_SUFFIX, filePath);
+                if (cachedTasks != null) {
+                    taskList.addAll(cachedTasks);
+                } else if (format == TaskFileFormat.COMPRESSED && new File(filePath).length() > 0) {
+                    loadCompressedTasks(taskList);
+                } else if (format == TaskFileFormat.TEXT && new File(filePath).length() >= PARALLEL_LOAD_THRESHOLD) {
+                    new ParallelTaskLoader(filePath).loadTasks(taskList);
                 } else {
-                    throw new IllegalArgumentException("Unknown task type");
+                    loadTasksSequentially(taskList);
                 }
-                assert task != null : "Parsed task should not be null.";
-                taskList.add(task);
+                isLoaded = true;
+            } catch (IOException e) {
+                System.out.println("An error occurred while loading tasks from file.");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+
+            boolean isReplayed = false;
+            if (journal != null) {
+                journal.deleteSegments(checkpoint - 1);
+                isReplayed = journal.replay(taskList, checkpoint) > 0;
             }
+            isSnapshotCurrent = isLoaded && !isReplayed;
+            if (isLoaded) {
+                migrateIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * Loads every task from the file into the provided list on the calling thread.
+     *
+     * @param taskList The list to which tasks will be added.
+     * @throws IOException If the file cannot be read.
+     */
+    private void loadTasksSequentially(ArrayList<Task> taskList) throws IOException {
+        try (TaskReader reader = TaskReader.open(filePath, format)) {
+            reader.readPage(taskList, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Reads the journal checkpoint stored in the task file, which is 0 if there is no task file yet.
+     *
+     * @return The first journal segment whose records are not in the task file.
+     * @throws IOException If the file cannot be read.
+     */
+    private int readJournalCheckpoint() throws IOException {
+        if (new File(filePath).length() == 0) {
+            return 0;
+        }
+        try (TaskReader reader = TaskReader.open(filePath, format)) {
+            return reader.getJournalCheckpoint();
+        }
+    }
+
+    /**
+     * Loads every task from the compressed file into the provided list, decompressing its blocks in parallel.
+     *
+     * @param taskList The list to which tasks will be added.
+     * @throws IOException If the file cannot be read.
+     */
+    private void loadCompressedTasks(ArrayList<Task> taskList) throws IOException {
+        CompressedTaskFile file = CompressedTaskFile.open(filePath);
+        try {
+            file.loadTasks(taskList, ForkJoinPool.commonPool());
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Loads the first page of tasks into the provided task list, then loads the rest on a background thread.
+     * The task list makes commands wait until the tasks they need have been loaded.
+     * If the snapshot cache matches the task file, every task is taken from the cache at once instead.
+     * If the journal holds records, they refer to positions in the fully loaded list,
+     * so every task is loaded up front instead.
+     * Large text files are decoded by a {@link ParallelTaskLoader} on the background thread,
+     * which hands the tasks over a range of the file at a time instead of a page at a time.
+     *
+     * @param taskList The task list to which tasks will be added.
+     * @param pageSize The number of tasks loaded at a time.
+     */
+    @Override
+    public void loadTasksInPages(TaskList taskList, int pageSize) {
+        assert taskList != null : "Task list should not be null.";
+        assert pageSize > 0 : "Page size should be positive.";
+        if (journal != null && journal.hasRecords()) {
+            ArrayList<Task> tasks = new ArrayList<>();
+            loadTasks(tasks);
+            taskList.appendLoadedTasks(tasks);
+            attachSearchIndex(taskList);
+            return;
+        }
+
+        format = TaskFileFormat.detect(filePath, preferredFormat);
+        deletedSlots = null;
+        indexDeletedSlots = null;
+        ArrayList<Task> cachedTasks = TaskSnapshotCache.consume(filePath + CACHE_SUFFIX, filePath);
+        if (cachedTasks != null) {
+            isSnapshotCurrent = true;
+            taskList.appendLoadedTasks(cachedTasks);
+            attachSearchIndex(taskList);
+            migrateIfNeeded();
+            return;
+        }
+
+        if (format == TaskFileFormat.TEXT && new File(filePath).length() >= PARALLEL_LOAD_THRESHOLD) {
+            isSnapshotCurrent = true;
+            taskList.beginLoading();
+            startLoader(() -> loadInParallel(taskList));
+            return;
+        }
+
+        TaskReader reader;
+        ArrayList<Task> firstPage = new ArrayList<>(pageSize);
+        try {
+            reader = TaskReader.open(filePath, format);
+            if (reader.readPage(firstPage, pageSize) < pageSize) {
+                reader.close();
+                isSnapshotCurrent = true;
+                taskList.appendLoadedTasks(firstPage);
+                attachSearchIndex(taskList);
+                migrateIfNeeded();
+                return;
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while loading tasks from file.");
+            taskList.appendLoadedTasks(firstPage);
+            attachSearchIndex(taskList);
+            return;
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            taskList.appendLoadedTasks(firstPage);
+            attachSearchIndex(taskList);
+            return;
+        }
+
+        isSnapshotCurrent = true;
+        taskList.appendLoadedTasks(firstPage);
+        taskList.beginLoading();
+        startLoader(() -> loadRemainingPages(reader, taskList, pageSize));
+    }
+
+    /**
+     * Starts loading the rest of the tasks on a background thread.
+     *
+     * @param load The loading work to run.
+     */
+    private void startLoader(Runnable load) {
+        Thread loader = new Thread(load, "task-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Decodes the whole text file in parallel and hands each decoded range to the task list in file order.
+     * The task list is told that loading has finished even if the file cannot be read to the end.
+     *
+     * @param taskList The task list to which tasks will be added.
+     */
+    private void loadInParallel(TaskList taskList) {
+        try {
+            new ParallelTaskLoader(filePath).loadChunks(taskList::appendLoadedTasks);
+            migrateIfNeeded();
         } catch (IOException e) {
+            isSnapshotCurrent = false;
             System.out.println("An error occurred while loading tasks from file.");
         } catch (IllegalArgumentException e) {
+            isSnapshotCurrent = false;
             System.out.println(e.getMessage());
+        } finally {
+            taskList.finishLoading();
+            attachSearchIndex(taskList);
+        }
+    }
+
+    /**
+     * Reads the remaining tasks page by page and hands each page to the task list.
+     * The task list is told that loading has finished even if the file cannot be read to the end.
+     * Once every task has been read, the file is migrated to the preferred format if needed.
+     *
+     * @param reader   The reader positioned after the first page.
+     * @param taskList The task list to which tasks will be added.
+     * @param pageSize The number of tasks loaded at a time.
+     */
+    private void loadRemainingPages(TaskReader reader, TaskList taskList, int pageSize) {
+        ArrayList<Task> page = new ArrayList<>(pageSize);
+        try (reader) {
+            boolean isLastPage = false;
+            while (!isLastPage) {
+                isLastPage = reader.readPage(page, pageSize) < pageSize;
+                taskList.appendLoadedTasks(page);
+                page.clear();
+            }
+            migrateIfNeeded();
+        } catch (IOException e) {
+            isSnapshotCurrent = false;
+            System.out.println("An error occurred while loading tasks from file.");
+        } catch (IllegalArgumentException e) {
+            isSnapshotCurrent = false;
+            System.out.println(e.getMessage());
+        } finally {
+            taskList.appendLoadedTasks(page);
+            taskList.finishLoading();
+            attachSearchIndex(taskList);
+        }
+    }
+
+    /**
+     * Attaches the search index saved with the task file to a fully loaded task list,
+     * or has the task list build a new one if the saved index does not match the loaded tasks.
+     *
+     * @param taskList The loaded task list.
+     */
+    private void attachSearchIndex(TaskList taskList) {
+        SearchIndex savedIndex = null;
+        synchronized (compactionLock) {
+            if (isSnapshotCurrent && indexDeletedSlots == null) {
+                savedIndex = SearchIndex.open(filePath + INDEX_SUFFIX, filePath);
+                indexDeletedSlots = savedIndex != null ? savedIndex.getSavedDeletedSlots() : null;
+            }
+        }
+        taskList.attachSearchIndex(savedIndex);
+    }
+
+    /**
+     * Saves a search index of the provided tasks next to the task file, stamped with the task file just written.
+     *
+     * @param taskList The tasks that were just saved.
+     */
+    private void writeSearchIndex(ArrayList<Task> taskList) {
+        try {
+            SearchIndex.write(filePath + INDEX_SUFFIX, filePath, taskList);
+            indexDeletedSlots = new int[0];
+        } catch (IOException e) {
+            indexDeletedSlots = null;
+            System.out.println("An error occurred while saving the search index.");
+        }
+    }
+
+    /**
+     * Appends the changes just saved to the task file to the search index,
+     * or writes the index in full if it cannot be updated.
+     *
+     * @param changes The changes that were just saved.
+     */
+    private void saveSearchIndex(TaskChanges changes) {
+        if (indexDeletedSlots != null) {
+            try {
+                indexDeletedSlots = SearchIndex.update(filePath + INDEX_SUFFIX, filePath, changes, indexDeletedSlots);
+            } catch (IOException e) {
+                indexDeletedSlots = null;
+            }
+        }
+        if (indexDeletedSlots == null) {
+            writeSearchIndex(changes.getTasks());
+        }
+    }
+
+    /**
+     * Starts rewriting the task file in the preferred format on a background thread,
+     * if it is stored in another format and holds any tasks.
+     */
+    private void migrateIfNeeded() {
+        if (format == preferredFormat || new File(filePath).length() == 0) {
+            return;
+        }
+        Thread migrator = new Thread(this::migrate, "task-migrator");
+        migrator.setDaemon(true);
+        migrator.start();
+    }
+
+    /**
+     * Rewrites the task file in the preferred format.
+     * The task file is rebuilt from its own contents rather than the in-memory list, and keeps its checkpoint,
+     * so the journal still applies on top of it once it has been rewritten.
+     */
+    private void migrate() {
+        synchronized (compactionLock) {
+            if (format == preferredFormat) {
+                return;
+            }
+            ArrayList<Task> tasks = new ArrayList<>();
+            try {
+                int checkpoint = readJournalCheckpoint();
+                loadTasksSequentially(tasks);
+                writeSnapshot(tasks, checkpoint);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("An error occurred while migrating the task file.");
+            }
         }
     }
 
     /**
      * Stores tasks from the current task list into the provided file.
+     * In journal mode, the journal is rotated first, and the segments folded into the new snapshot
+     * are deleted once it is written.
      *
      * @param taskList The list to which tasks will be copied and saved into the file
      */
+    @Override
     public void saveTasks(ArrayList<Task> taskList) {
         assert taskList != null : "Task list should not be null.";
-        try (FileWriter writer = new FileWriter(filePath)) {
-            for (Task task : taskList) {
-                assert task != null : "Task in the list should not be null.";
-                writer.write(task.toFileFormat() + System.lineSeparator());
+        synchronized (compactionLock) {
+            int checkpoint;
+            try {
+                checkpoint = rotateJournal();
+            } catch (IOException e) {
+                System.out.println("An error occurred while saving tasks to file.");
+                return;
+            }
+            if (saveSnapshot(taskList, checkpoint)) {
+                writeSearchIndex(taskList);
             }
+        }
+    }
+
+    /**
+     * Rotates the journal so that every record appended so far is in a segment below the returned checkpoint.
+     *
+     * @return The checkpoint to store in the next snapshot, which is 0 unless the storage is in journal mode.
+     * @throws IOException If the journal cannot start a new segment.
+     */
+    private int rotateJournal() throws IOException {
+        return journal == null ? 0 : journal.rotate();
+    }
+
+    /**
+     * Writes a full snapshot of the provided tasks, then deletes the journal segments it covers.
+     * The search index is left to the caller.
+     *
+     * @param taskList   The list of tasks to be written.
+     * @param checkpoint The first journal segment whose records are not in the tasks.
+     * @return true if the snapshot was written, false otherwise.
+     */
+    private boolean saveSnapshot(ArrayList<Task> taskList, int checkpoint) {
+        try {
+            writeSnapshot(taskList, checkpoint);
         } catch (IOException e) {
+            isSnapshotCurrent = false;
+            indexDeletedSlots = null;
             System.out.println("An error occurred while saving tasks to file.");
+            return false;
+        }
+
+        isSnapshotCurrent = true;
+        if (journal != null) {
+            journal.deleteSegments(checkpoint - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the provided tasks to the task file in the preferred format, replacing the previous contents.
+     * The task file and its directory entry are synced to disk before this returns.
+     *
+     * @param taskList   The list of tasks to be written.
+     * @param checkpoint The first journal segment whose records are not in the tasks.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeSnapshot(ArrayList<Task> taskList, int checkpoint) throws IOException {
+        if (preferredFormat == TaskFileFormat.BINARY) {
+            BinaryTaskFile.write(filePath, taskList, checkpoint);
+            deletedSlots = new int[0];
+        } else if (preferredFormat == TaskFileFormat.COMPRESSED) {
+            CompressedTaskFile.write(filePath, taskList, checkpoint);
+        } else {
+            saveTextTasks(taskList, checkpoint);
+        }
+        syncDirectory(Paths.get(filePath));
+        format = preferredFormat;
+    }
+
+    /**
+     * Syncs the directory holding the specified file, so that a file just moved into place survives a crash.
+     * Platforms that cannot open a directory, such as Windows, are left to sync it on their own.
+     *
+     * @param file The file whose directory is synced.
+     */
+    static void syncDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // The directory cannot be opened for syncing on this platform.
+        }
+    }
+
+    /**
+     * Saves only the changes made to the task list since it was loaded or last saved.
+     * Binary files are updated in place, so marking a single task writes a single byte,
+     * and the slots deleted by earlier updates are kept in memory so that the records need not be scanned again.
+     * Text and compressed files, and files that no longer match what was loaded, are rewritten in full.
+     * Either way, only the changes are appended to the search index.
+     *
+     * @param taskList The task list whose changes will be saved.
+     */
+    @Override
+    public void saveChanges(TaskList taskList) {
+        assert taskList != null : "Task list should not be null.";
+        synchronized (compactionLock) {
+            TaskChanges changes;
+            int checkpoint;
+            int[] updatedSlots = null;
+            try {
+                synchronized (taskList) {
+                    changes = taskList.takeChanges();
+                    checkpoint = rotateJournal();
+                }
+                if (format == TaskFileFormat.BINARY && preferredFormat == TaskFileFormat.BINARY
+                        && isSnapshotCurrent) {
+                    updatedSlots = BinaryTaskFile.update(filePath, changes, deletedSlots, checkpoint);
+                }
+            } catch (IOException e) {
+                isSnapshotCurrent = false;
+                indexDeletedSlots = null;
+                System.out.println("An error occurred while saving tasks to file.");
+                return;
+            }
+
+            if (updatedSlots != null) {
+                deletedSlots = updatedSlots;
+                if (journal != null) {
+                    journal.deleteSegments(checkpoint - 1);
+                }
+            } else if (!saveSnapshot(changes.getTasks(), checkpoint)) {
+                return;
+            }
+            saveSearchIndex(changes);
+        }
+    }
+
+    /**
+     * Saves the changes made to the task list, then writes the snapshot cache for the next launch.
+     * The cache is only written if the task file now holds exactly the tasks in the list.
+     *
+     * @param taskList The task list whose changes will be saved.
+     */
+    @Override
+    public void saveOnExit(TaskList taskList) {
+        assert taskList != null : "Task list should not be null.";
+        saveChanges(taskList);
+        synchronized (compactionLock) {
+            if (!isSnapshotCurrent || (journal != null && journal.hasRecords())) {
+                return;
+            }
+            try {
+                TaskSnapshotCache.write(filePath + CACHE_SUFFIX, filePath, taskList.getTasks());
+            } catch (IOException e) {
+                System.out.println("An error occurred while saving the task cache.");
+            }
+        }
+    }
+
+    /**
+     * Writes tasks to a text file, one task per line, through the reusable {@link TaskEncoder}.
+     * In journal mode, the tasks are preceded by a line holding the journal checkpoint.
+     * The tasks are written to a temporary file and synced to disk first, then moved into place,
+     * so a failed save never leaves a half-written task file behind.
+     *
+     * @param taskList   The list of tasks to be written.
+     * @param checkpoint The first journal segment whose records are not in the tasks.
+     * @throws IOException If the file cannot be written.
+     */
+    private void saveTextTasks(ArrayList<Task> taskList, int checkpoint) throws IOException {
+        Path temp = Paths.get(filePath + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (checkpoint > 0) {
+                String line = TaskLineDecoder.CHECKPOINT_PREFIX + checkpoint + System.lineSeparator();
+                channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII)));
+            }
+            encoder.encode(taskList, channel);
+            channel.force(false);
+        }
+        Files.move(temp, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Starts a background compaction if enough journal segments have been sealed and none is running.
+     */
+    private void compactIfNeeded() {
+        if (journal.getSealedSegments().size() < compactionThreshold) {
+            return;
+        }
+        if (compactor != null && compactor.isAlive()) {
+            return;
+        }
+        compactor = new Thread(this::compact, "journal-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    /**
+     * Folds the sealed journal segments into a fresh task file, then deletes them.
+     * The task file is rebuilt from its own contents rather than the in-memory list, so mutations
+     * keep being appended to the active segment while this runs, and replay only has to cover that segment.
+     * The new task file takes the segment after the folded ones as its checkpoint.
+     */
+    private void compact() {
+        synchronized (compactionLock) {
+            List<Integer> sealedSegments = journal.getSealedSegments();
+            if (sealedSegments.isEmpty()) {
+                return;
+            }
+            int lastSegment = sealedSegments.get(sealedSegments.size() - 1);
+            ArrayList<Task> tasks = new ArrayList<>();
+            try {
+                int checkpoint = readJournalCheckpoint();
+                loadTasksSequentially(tasks);
+                journal.replay(tasks, checkpoint, lastSegment);
+                writeSnapshot(tasks, Math.max(checkpoint, lastSegment + 1));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("An error occurred while compacting the journal.");
+                return;
+            }
+            journal.deleteSegments(lastSegment);
+            isSnapshotCurrent = false;
+        }
+    }
+
+    /**
+     * Blocks until every journal record written so far is durable on disk.
+     * Records that could not be written are reported, and are kept by the next save instead.
+     * Does nothing unless the storage is in journal mode.
+     */
+    @Override
+    public void flush() {
+        if (journal != null && !journal.flush()) {
+            System.out.println("Some changes could not be written to the journal, and will be kept by the next save.");
+        }
+    }
+
+    /**
+     * Records that a task was added to the end of the list.
+     * Does nothing unless the storage is in journal mode.
+     *
+     * @param task The task that was added.
+     */
+    @Override
+    public void recordAdd(Task task) {
+        if (journal != null) {
+            journal.recordAdd(task);
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Records that the task at the specified index was deleted.
+     * Does nothing unless the storage is in journal mode.
+     *
+     * @param index The zero-based index of the deleted task.
+     */
+    @Override
+    public void recordDelete(int index) {
+        if (journal != null) {
+            journal.recordDelete(index);
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Records that the task at the specified index was marked as done.
+     * Does nothing unless the storage is in journal mode.
+     *
+     * @param index The zero-based index of the marked task.
+     */
+    @Override
+    public void recordMark(int index) {
+        if (journal != null) {
+            journal.recordMark(index);
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Records that the task at the specified index was marked as not done.
+     * Does nothing unless the storage is in journal mode.
+     *
+     * @param index The zero-based index of the unmarked task.
+     */
+    @Override
+    public void recordUnmark(int index) {
+        if (journal != null) {
+            journal.recordUnmark(index);
+            compactIfNeeded();
         }
     }
 }
@@ -0,0 +1,84 @@
+package myapp.quirkbot;
+
+import java.util.ArrayList;
+
+/**
+ * StorageBackend interface which is implemented by every place the task list can be loaded from and saved to.
+ * Mutations are reported to the backend as they happen, so backends that persist changes incrementally can
+ * record them, while backends that only save snapshots can ignore them.
+ * A mutation and its report are made together while holding the lock of the task list, and a save takes the
+ * changes, and seals the records made so far, while holding the same lock, so every change is either in the
+ * saved tasks or in a later record, never both or neither. A save locks the backend before the task list,
+ * and holds the task list only while taking its changes and never while writing them, so a save must not be
+ * started while holding the lock of the task list.
+ */
+public interface StorageBackend {
+    /**
+     * Loads every stored task into the provided list.
+     *
+     * @param taskList The list to which tasks will be added.
+     */
+    void loadTasks(ArrayList<Task> taskList);
+
+    /**
+     * Loads the stored tasks into the provided task list, possibly finishing the load in the background.
+     *
+     * @param taskList The task list to which tasks will be added.
+     * @param pageSize The number of tasks loaded at a time.
+     */
+    void loadTasksInPages(TaskList taskList, int pageSize);
+
+    /**
+     * Replaces the stored tasks with the provided tasks.
+     *
+     * @param taskList The tasks to be saved.
+     */
+    void saveTasks(ArrayList<Task> taskList);
+
+    /**
+     * Saves the changes made to the task list since it was loaded or last saved.
+     *
+     * @param taskList The task list whose changes will be saved.
+     */
+    void saveChanges(TaskList taskList);
+
+    /**
+     * Saves the changes made to the task list when the application exits cleanly.
+     *
+     * @param taskList The task list whose changes will be saved.
+     */
+    void saveOnExit(TaskList taskList);
+
+    /**
+     * Blocks until every change recorded so far is durable.
+     */
+    void flush();
+
+    /**
+     * Records that a task was added to the end of the list.
+     *
+     * @param task The task that was added.
+     */
+    void recordAdd(Task task);
+
+    /**
+     * Records that the task at the specified index was deleted.
+     *
+     * @param index The zero-based index of the deleted task.
+     */
+    void recordDelete(int index);
+
+    /**
+     * Records that the task at the specified index was marked as done.
+     *
+     * @param index The zero-based index of the marked task.
+     */
+    void recordMark(int index);
+
+    /**
+     * Records that the task at the specified index was marked as not done.
+     *
+     * @param index The zero-based index of the unmarked task.
+     */
+    void recordUnmark(int index);
+}
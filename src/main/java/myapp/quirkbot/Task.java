@@ -1,11 +1,18 @@
 package myapp.quirkbot;
 
+import java.time.LocalDateTime;
+
 /**
  * Task abstract class which is inherited from subclasses
  */
 abstract class Task {
+    static final long NO_ID = -1;
+
     private String description;
+    private String lowerCaseDescription;
     private boolean isDone;
+    private TaskList owner;
+    private long id = NO_ID;
 
     /**
      * Constructs a Task with the specified description.
@@ -27,6 +34,58 @@ abstract class Task {
         return this.description;
     }
 
+    /**
+     * Returns the description of the task in lower case, which searches compare keywords against.
+     * It is computed on first use and then kept, since the description never changes.
+     *
+     * @return The lowercased description of the task.
+     */
+    public String getLowerCaseDescription() {
+        String lowerCase = this.lowerCaseDescription;
+        if (lowerCase == null) {
+            lowerCase = this.description.toLowerCase();
+            this.lowerCaseDescription = lowerCase;
+        }
+        return lowerCase;
+    }
+
+    /**
+     * Returns the id of the task, which stays the same while the task is in a task list,
+     * however the tasks before it are added or deleted.
+     *
+     * @return The id of the task, or {@link #NO_ID} if it has not been added to a task list.
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Sets the id of the task.
+     *
+     * @param id The id given to the task by the task list holding it.
+     */
+    void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the first date of the task, which tasks are sorted and sharded by.
+     *
+     * @return The first date and time of the task, or null if it has none.
+     */
+    public LocalDateTime getStartDate() {
+        return null;
+    }
+
+    /**
+     * Returns the last date the task spans, which is its start date unless it lasts for a while.
+     *
+     * @return The last date and time of the task, or null if it has none.
+     */
+    public LocalDateTime getEndDate() {
+        return getStartDate();
+    }
+
     /**
      * Returns whether the task is marked as done.
      *
@@ -41,7 +100,7 @@ abstract class Task {
      * This method sets the completion status of the task to true.
      */
     public void markDone() {
-        this.isDone = true;
+        setDone(true);
         assert this.isDone : "Task should be marked as done.";
     }
 
@@ -50,10 +109,39 @@ abstract class Task {
      * This method sets the completion status of the task to false.
      */
     public void markUndone() {
-        this.isDone = false;
+        setDone(false);
         assert !this.isDone : "Task should be marked as not done.";
     }
 
+    /**
+     * Sets the completion status of the task and tells the task list holding it, if any, that it has changed.
+     * The status is changed while holding the lock of the task list, so it never changes halfway through a save,
+     * and the task list remembers the task as changed until its changes are next taken to be saved.
+     *
+     * @param isDone The new completion status.
+     */
+    private void setDone(boolean isDone) {
+        TaskList list = owner;
+        if (list == null) {
+            this.isDone = isDone;
+            return;
+        }
+        synchronized (list) {
+            this.isDone = isDone;
+            list.markChanged(this);
+        }
+        list.notifyChanged();
+    }
+
+    /**
+     * Sets the task list holding the task, which is told whenever the completion status changes.
+     *
+     * @param owner The task list holding the task, or null if it has been removed.
+     */
+    void setOwner(TaskList owner) {
+        this.owner = owner;
+    }
+
     /**
      * Returns a string representation of the task.
      * This is an abstract method that must be implemented by concrete subclasses to provide
@@ -0,0 +1,243 @@
+package myapp.quirkbot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * TaskArchive class which keeps completed tasks out of the task list in an append-only archive file.
+ * Each batch of archived tasks is appended as its own gzip member holding one task per line in the
+ * " | " separated text format. Every member is framed by its length and a CRC32C checksum, so the archive
+ * is searched with one streaming scan that holds at most one member in memory, and a member that was
+ * cut short or damaged is skipped without losing the members after it. A member torn off by a crash
+ * during an append is cut off before the next member is appended.
+ */
+public class TaskArchive {
+    static final int DEFAULT_ARCHIVE_AFTER_DAYS = 30;
+    static final int FRAME_HEADER_SIZE = 8;
+
+    private final String filePath;
+
+    /**
+     * Constructs a TaskArchive backed by the specified file.
+     *
+     * @param filePath The path to the archive file.
+     */
+    public TaskArchive(String filePath) {
+        assert filePath != null && !filePath.trim().isEmpty() : "Archive path should not be null or empty.";
+        this.filePath = filePath;
+    }
+
+    /**
+     * Returns whether a task is ready to be archived.
+     * A task is ready once it is done and its date, which is the deadline of a Deadline or the end of an Event,
+     * is before the cutoff. Tasks do not record when they were completed, so done tasks without a date
+     * stay in the task list rather than being archived on the first sweep after they are marked.
+     *
+     * @param task   The task.
+     * @param cutoff The date and time before which dated tasks are archived.
+     * @return true if the task should be archived, false otherwise.
+     */
+    static boolean isArchivable(Task task, LocalDateTime cutoff) {
+        if (!task.getDone()) {
+            return false;
+        }
+        LocalDateTime date = task.getEndDate();
+        return date != null && date.isBefore(cutoff);
+    }
+
+    /**
+     * Moves every task that is ready to be archived out of the task list and into the archive.
+     * The tasks are picked, appended to the archive and deleted while the task list is locked,
+     * and each is deleted at the position found by its id, so a concurrent change cannot make the sweep
+     * delete the wrong task.
+     * The tasks are appended to the archive before they are deleted, so a crash in between
+     * can leave a task in both places but never loses it.
+     *
+     * @param taskList The task list to sweep.
+     * @param storage  The storage backend to which the deletions are reported.
+     * @param cutoff   The date and time before which dated tasks are archived.
+     * @return The number of tasks archived.
+     */
+    public int archiveDoneTasks(TaskList taskList, StorageBackend storage, LocalDateTime cutoff) {
+        assert taskList != null : "Task list should not be null.";
+        assert storage != null : "Storage should not be null.";
+        synchronized (taskList) {
+            List<Task> archivedTasks = new ArrayList<>();
+            for (Task task : taskList.getTasks()) {
+                if (isArchivable(task, cutoff)) {
+                    archivedTasks.add(task);
+                }
+            }
+            if (archivedTasks.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                append(archivedTasks);
+            } catch (IOException e) {
+                System.out.println("An error occurred while archiving tasks.");
+                return 0;
+            }
+            for (Task task : archivedTasks) {
+                int index = taskList.indexOfId(task.getId());
+                assert index >= 0 : "Archived task should still be in the list.";
+                taskList.deleteTask(index);
+                storage.recordDelete(index);
+            }
+            return archivedTasks.size();
+        }
+    }
+
+    /**
+     * Appends the provided tasks to the archive as a new framed gzip member, and syncs it to disk.
+     * A member left incomplete at the end of the archive by an earlier crash is cut off first.
+     *
+     * @param tasks The tasks to be archived.
+     * @throws IOException If the archive cannot be written.
+     */
+    public void append(List<Task> tasks) throws IOException {
+        assert tasks != null : "Task list should not be null.";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream member = new GZIPOutputStream(bytes);
+        Writer writer = new OutputStreamWriter(member, StandardCharsets.UTF_8);
+        for (Task task : tasks) {
+            writer.write(task.toFileFormat());
+            writer.write('\n');
+        }
+        writer.flush();
+        member.finish();
+        byte[] data = bytes.toByteArray();
+
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+            long end = findEnd(file);
+            file.setLength(end);
+            file.seek(end);
+            file.writeInt(data.length);
+            file.writeInt(checksum(data));
+            file.write(data);
+            file.getChannel().force(false);
+        }
+    }
+
+    /**
+     * Returns the end of the last complete member in the archive.
+     * Only the frame headers are read, together with the data of the last member, since every member before it
+     * was synced to disk before the next one was appended.
+     *
+     * @param file The archive file.
+     * @return The position just after the last complete member.
+     * @throws IOException If the archive cannot be read.
+     */
+    private static long findEnd(RandomAccessFile file) throws IOException {
+        long length = file.length();
+        long position = 0;
+        while (position + FRAME_HEADER_SIZE <= length) {
+            file.seek(position);
+            int memberLength = file.readInt();
+            int memberChecksum = file.readInt();
+            long memberEnd = position + FRAME_HEADER_SIZE + memberLength;
+            if (memberLength < 0 || memberEnd > length) {
+                break;
+            }
+            if (memberEnd == length) {
+                byte[] data = new byte[memberLength];
+                file.readFully(data);
+                return checksum(data) == memberChecksum ? memberEnd : position;
+            }
+            position = memberEnd;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the CRC32C checksum of a member.
+     *
+     * @param data The bytes of the member.
+     * @return The checksum.
+     */
+    private static int checksum(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Searches the archive for tasks that contain the specified keyword in their descriptions.
+     * A member whose checksum does not match is skipped, and a member cut short by a crash ends the scan,
+     * keeping the matches found in every other member.
+     *
+     * @param keyword The keyword to search for.
+     * @return A list of archived tasks containing the keyword, oldest first.
+     */
+    public List<Task> searchTasks(String keyword) {
+        assert keyword != null : "Search keyword should not be null.";
+        List<Task> matches = new ArrayList<>();
+        long remaining = new File(filePath).length();
+        if (remaining == 0) {
+            return matches;
+        }
+
+        String lowerCaseKeyword = keyword.toLowerCase();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath)))) {
+            while (remaining > 0) {
+                int memberLength = input.readInt();
+                int memberChecksum = input.readInt();
+                if (memberLength < 0 || memberLength > remaining - FRAME_HEADER_SIZE) {
+                    throw new EOFException();
+                }
+                remaining -= FRAME_HEADER_SIZE + memberLength;
+                byte[] data = new byte[memberLength];
+                input.readFully(data);
+                if (checksum(data) != memberChecksum) {
+                    System.out.println("A damaged part of the archive was skipped.");
+                    continue;
+                }
+                searchMember(data, lowerCaseKeyword, matches);
+            }
+        } catch (EOFException e) {
+            System.out.println("The end of the archive is incomplete and was skipped.");
+        } catch (IOException e) {
+            System.out.println("An error occurred while searching the archive.");
+        }
+        return matches;
+    }
+
+    /**
+     * Adds the tasks in one member that contain the keyword to the matches, skipping any malformed line.
+     *
+     * @param data             The bytes of the member.
+     * @param lowerCaseKeyword The keyword to search for, in lower case.
+     * @param matches          The list to which matching tasks are added.
+     * @throws IOException If the member cannot be decompressed.
+     */
+    private static void searchMember(byte[] data, String lowerCaseKeyword, List<Task> matches) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(data)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Task task = Storage.parseStoredTask(line);
+                if (task != null && task.getLowerCaseDescription().contains(lowerCaseKeyword)) {
+                    matches.add(task);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package myapp.quirkbot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * TaskChanges class which holds the tasks in a task list together with the changes made to them
+ * since the changes were last taken, as taken by {@link TaskList#takeChanges()} in a single step.
+ * Tasks are only ever appended to a task list, so the tasks added since then are always at the end of the list.
+ */
+public class TaskChanges {
+    private final ArrayList<Task> tasks;
+    private final List<Integer> deletedIndices;
+    private final SortedMap<Integer, Task> changedTasks;
+
+    /**
+     * Constructs a TaskChanges object holding the specified tasks and changes.
+     *
+     * @param tasks          A copy of the tasks in the list, in order.
+     * @param deletedIndices The indices of the deleted tasks, in the order they were deleted.
+     * @param changedTasks   The tasks whose completion status changed, keyed by their current positions.
+     */
+    TaskChanges(ArrayList<Task> tasks, List<Integer> deletedIndices, SortedMap<Integer, Task> changedTasks) {
+        assert tasks != null : "Task list should not be null.";
+        assert deletedIndices != null : "Deleted indices should not be null.";
+        assert changedTasks != null : "Changed tasks should not be null.";
+        this.tasks = tasks;
+        this.deletedIndices = deletedIndices;
+        this.changedTasks = changedTasks;
+    }
+
+    /**
+     * Returns the tasks in the list at the time the changes were taken, in order.
+     *
+     * @return The tasks.
+     */
+    public ArrayList<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns the indices of the deleted tasks, in the order they were deleted.
+     * Each index refers to the position of the task at the time it was deleted.
+     *
+     * @return The deleted indices.
+     */
+    public List<Integer> getDeletedIndices() {
+        return deletedIndices;
+    }
+
+    /**
+     * Returns the tasks still in the list whose completion status changed, keyed by their positions in
+     * {@link #getTasks()}, in ascending order of position.
+     *
+     * @return The changed tasks.
+     */
+    public SortedMap<Integer, Task> getChangedTasks() {
+        return changedTasks;
+    }
+}
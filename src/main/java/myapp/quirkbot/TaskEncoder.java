@@ -0,0 +1,200 @@
+package myapp.quirkbot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * TaskEncoder class which writes tasks in the " | " separated text format straight into a reusable direct buffer.
+ * Descriptions are encoded to UTF-8 one character at a time and dates are written digit by digit,
+ * so no String is built for a task. Whenever the buffer fills up, it is drained to the channel being written,
+ * and the same buffer is reused for every save.
+ */
+public class TaskEncoder {
+    static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private static final byte[] SEPARATOR = " | ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_FIXED_BYTES = 64;
+
+    private final ByteBuffer buffer;
+    private WritableByteChannel channel;
+
+    /**
+     * Constructs a TaskEncoder with a direct buffer of the default size.
+     */
+    public TaskEncoder() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a TaskEncoder with a direct buffer of the specified size.
+     *
+     * @param bufferSize The size of the buffer in bytes.
+     */
+    public TaskEncoder(int bufferSize) {
+        assert bufferSize >= MAX_FIXED_BYTES : "Buffer should hold at least the fixed fields of a task.";
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Writes the provided tasks to the channel, one task per line.
+     *
+     * @param tasks   The tasks to be written.
+     * @param channel The channel to write to.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void encode(List<Task> tasks, WritableByteChannel channel) throws IOException {
+        assert tasks != null : "Task list should not be null.";
+        assert channel != null : "Channel should not be null.";
+        this.channel = channel;
+        buffer.clear();
+        try {
+            for (Task task : tasks) {
+                assert task != null : "Task in the list should not be null.";
+                encodeTask(task);
+            }
+            drain();
+        } finally {
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Writes a single task followed by a line separator.
+     *
+     * @param task The task to be written.
+     * @throws IOException If the buffer has to be drained and the channel cannot be written.
+     */
+    private void encodeTask(Task task) throws IOException {
+        LocalDateTime first = null;
+        LocalDateTime second = null;
+        byte type;
+        if (task instanceof Deadline) {
+            type = 'D';
+            first = ((Deadline) task).getDeadlineBy();
+        } else if (task instanceof Event) {
+            type = 'E';
+            first = ((Event) task).getEventFrom();
+            second = ((Event) task).getEventTo();
+        } else {
+            type = 'T';
+        }
+
+        ensureRemaining(MAX_FIXED_BYTES);
+        buffer.put(type);
+        buffer.put(SEPARATOR);
+        buffer.put((byte) (task.getDone() ? '1' : '0'));
+        buffer.put(SEPARATOR);
+        encodeDescription(task.getDescription());
+        ensureRemaining(MAX_FIXED_BYTES);
+        if (first != null) {
+            buffer.put(SEPARATOR);
+            encodeDate(first);
+        }
+        if (second != null) {
+            buffer.put(SEPARATOR);
+            encodeDate(second);
+        }
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes a description in UTF-8, replacing unpaired surrogates with '?' as String.getBytes does.
+     *
+     * @param description The description to be written.
+     * @throws IOException If the buffer has to be drained and the channel cannot be written.
+     */
+    private void encodeDescription(String description) throws IOException {
+        int length = description.length();
+        for (int i = 0; i < length; i++) {
+            ensureRemaining(4);
+            char c = description.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xc0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(description.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, description.charAt(++i));
+                buffer.put((byte) (0xf0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xe0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                buffer.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    /**
+     * Writes a date in the "dd/MM/yyyy HHmm" pattern.
+     * Years outside 1 to 9999, which the pattern prints as other years of the era or with more digits,
+     * go through the formatter.
+     *
+     * @param dateTime The date and time to be written.
+     */
+    private void encodeDate(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            buffer.put(dateTime.format(DateTimeCodec.FILE_FORMATTER).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        putDigits(dateTime.getDayOfMonth(), 2);
+        buffer.put((byte) '/');
+        putDigits(dateTime.getMonthValue(), 2);
+        buffer.put((byte) '/');
+        putDigits(year, 4);
+        buffer.put((byte) ' ');
+        putDigits(dateTime.getHour(), 2);
+        putDigits(dateTime.getMinute(), 2);
+    }
+
+    /**
+     * Writes a non-negative number as a fixed number of decimal digits, padded with leading zeros.
+     *
+     * @param value  The number to be written.
+     * @param digits The number of digits to write.
+     */
+    private void putDigits(int value, int digits) {
+        int position = buffer.position();
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer.put(position + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(position + digits);
+    }
+
+    /**
+     * Drains the buffer if it has less than the specified number of bytes left.
+     *
+     * @param count The number of bytes about to be written.
+     * @throws IOException If the channel cannot be written.
+     */
+    private void ensureRemaining(int count) throws IOException {
+        if (buffer.remaining() < count) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes everything in the buffer to the channel and clears the buffer.
+     *
+     * @throws IOException If the channel cannot be written.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
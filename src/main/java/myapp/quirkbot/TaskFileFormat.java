@@ -0,0 +1,78 @@
+package myapp.quirkbot;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * TaskFileFormat enum which lists the on-disk formats a task file can be stored in.
+ * The binary and compressed formats start with a magic number and a version, so the format of an existing file
+ * can be detected from its first bytes. Files without a known magic number are in the legacy text format.
+ */
+public enum TaskFileFormat {
+    TEXT(".txt"),
+    BINARY(".bin"),
+    COMPRESSED(".z");
+
+    private final String suffix;
+
+    TaskFileFormat(String suffix) {
+        this.suffix = suffix;
+    }
+
+    /**
+     * Returns the file name suffix used by the format.
+     *
+     * @return The suffix, including the leading dot.
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * Returns the format of the task file at the specified path, based on its suffix.
+     * Files with an unknown suffix are treated as text files.
+     *
+     * @param filePath The path to the task file.
+     * @return The format of the task file.
+     */
+    public static TaskFileFormat of(String filePath) {
+        assert filePath != null : "File path should not be null.";
+        for (TaskFileFormat format : values()) {
+            if (filePath.endsWith(format.suffix)) {
+                return format;
+            }
+        }
+        return TEXT;
+    }
+
+    /**
+     * Detects the format of the task file at the specified path from the magic number at its start.
+     * Files that do not exist or are too short to hold a magic number are assumed to be in the fallback format.
+     *
+     * @param filePath The path to the task file.
+     * @param fallback The format assumed for missing and empty files.
+     * @return The format of the task file.
+     */
+    public static TaskFileFormat detect(String filePath, TaskFileFormat fallback) {
+        assert filePath != null : "File path should not be null.";
+        byte[] magic;
+        try (InputStream stream = new FileInputStream(filePath)) {
+            magic = stream.readNBytes(Integer.BYTES);
+        } catch (IOException e) {
+            return fallback;
+        }
+        if (magic.length < Integer.BYTES) {
+            return fallback;
+        }
+        switch (ByteBuffer.wrap(magic).getInt()) {
+        case BinaryTaskFile.MAGIC:
+            return BINARY;
+        case CompressedTaskFile.MAGIC:
+            return COMPRESSED;
+        default:
+            return TEXT;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package myapp.quirkbot;
+
+/**
+ * TaskIdMap class which maps task ids to tasks in O(1) expected time, without boxing the ids.
+ * The ids are kept in an open-addressing hash table with linear probing. A removed entry is filled by moving
+ * later entries of its probe run back, so no tombstones build up. The table doubles when it is half full and
+ * halves when it is less than an eighth full, so its size follows the number of tasks in the list rather than
+ * the number of ids ever given out, and any id a task was saved with can be looked up, however large it is.
+ */
+class TaskIdMap {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] ids = new long[MIN_CAPACITY];
+    private Task[] tasks = new Task[MIN_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the task with the specified id.
+     *
+     * @param id The id of the task.
+     * @return The task with the id, or null if there is none.
+     */
+    Task get(long id) {
+        int mask = tasks.length - 1;
+        for (int i = hash(id) & mask; tasks[i] != null; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                return tasks[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps the id of a task to the task, replacing any task mapped to the same id.
+     *
+     * @param id   The id of the task.
+     * @param task The task.
+     */
+    void put(long id, Task task) {
+        assert task != null : "Task should not be null.";
+        if (2 * (size + 1) > tasks.length) {
+            resize(tasks.length * 2);
+        }
+        int mask = tasks.length - 1;
+        int i = hash(id) & mask;
+        while (tasks[i] != null && ids[i] != id) {
+            i = (i + 1) & mask;
+        }
+        if (tasks[i] == null) {
+            size++;
+        }
+        ids[i] = id;
+        tasks[i] = task;
+    }
+
+    /**
+     * Removes the task with the specified id, if there is one.
+     *
+     * @param id The id of the task.
+     */
+    void remove(long id) {
+        int mask = tasks.length - 1;
+        int i = hash(id) & mask;
+        while (tasks[i] != null && ids[i] != id) {
+            i = (i + 1) & mask;
+        }
+        if (tasks[i] == null) {
+            return;
+        }
+        tasks[i] = null;
+        size--;
+        for (int j = (i + 1) & mask; tasks[j] != null; j = (j + 1) & mask) {
+            int home = hash(ids[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                ids[i] = ids[j];
+                tasks[i] = tasks[j];
+                tasks[j] = null;
+                i = j;
+            }
+        }
+        if (tasks.length > MIN_CAPACITY && 8 * size < tasks.length) {
+            resize(tasks.length / 2);
+        }
+    }
+
+    /**
+     * Returns the number of tasks in the map.
+     *
+     * @return The number of tasks.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of entries the table can hold, which is twice the most tasks it holds before it grows.
+     *
+     * @return The capacity of the table.
+     */
+    int capacity() {
+        return tasks.length;
+    }
+
+    /**
+     * Moves every entry into a new table of the specified capacity.
+     *
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    private void resize(int capacity) {
+        long[] oldIds = ids;
+        Task[] oldTasks = tasks;
+        ids = new long[capacity];
+        tasks = new Task[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldTasks.length; i++) {
+            if (oldTasks[i] != null) {
+                int j = hash(oldIds[i]) & mask;
+                while (tasks[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                ids[j] = oldIds[i];
+                tasks[j] = oldTasks[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of an id, so that ids given out in sequence do not fill a single run of the table.
+     *
+     * @param id The id.
+     * @return The hash of the id.
+     */
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
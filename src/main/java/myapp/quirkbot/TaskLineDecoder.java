@@ -0,0 +1,103 @@
+package myapp.quirkbot;
+
+/**
+ * TaskLineDecoder class which finds the fields of a line in the " | " separated text format by index.
+ * Fields are located with plain index scans instead of a regular expression split, and date fields are decoded
+ * in place by {@link DateTimeCodec}, so decoding a line allocates nothing but the task itself.
+ * A text file saved with a journal starts with a checkpoint line such as "# journal 3" instead of a task.
+ */
+final class TaskLineDecoder {
+    static final String SEPARATOR = " | ";
+    static final int SEPARATOR_LENGTH = SEPARATOR.length();
+    static final String CHECKPOINT_PREFIX = "# journal ";
+
+    private TaskLineDecoder() {
+    }
+
+    /**
+     * Returns the journal checkpoint held by the first line of a text file.
+     *
+     * @param line The first line of the file.
+     * @return The first journal segment whose records are not in the file, or -1 if the line is a task.
+     * @throws IllegalArgumentException If the checkpoint is not a number.
+     */
+    static int parseCheckpoint(String line) {
+        if (!line.startsWith(CHECKPOINT_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(line.substring(CHECKPOINT_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed journal checkpoint");
+        }
+    }
+
+    /**
+     * Returns the end of the field starting at the specified index.
+     *
+     * @param line  The line being decoded.
+     * @param start The index of the first character of the field.
+     * @return The index of the separator after the field, or the length of the line if it is the last field.
+     */
+    static int findFieldEnd(String line, int start) {
+        int end = line.indexOf(SEPARATOR, start);
+        return end < 0 ? line.length() : end;
+    }
+
+    /**
+     * Returns the start of the field after the field ending at the specified index.
+     *
+     * @param fieldEnd The end of the previous field, as returned by {@link #findFieldEnd(String, int)}.
+     * @return The index of the first character of the next field.
+     */
+    static int nextFieldStart(int fieldEnd) {
+        return fieldEnd + SEPARATOR_LENGTH;
+    }
+
+    /**
+     * Returns whether another field follows the field ending at the specified index.
+     *
+     * @param line     The line being decoded.
+     * @param fieldEnd The end of the field.
+     * @return true if the line continues with another field, false otherwise.
+     */
+    static boolean hasNextField(String line, int fieldEnd) {
+        return fieldEnd < line.length();
+    }
+
+    /**
+     * Returns whether the completion status field, ignoring surrounding whitespace, is "1".
+     *
+     * @param line  The line being decoded.
+     * @param start The index of the first character of the field.
+     * @param end   The end of the field.
+     * @return true if the task is done, false otherwise.
+     */
+    static boolean isDone(String line, int start, int end) {
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start == 1 && line.charAt(start) == '1';
+    }
+
+    /**
+     * Returns a field without its leading and trailing whitespace, as {@link String#trim()} would.
+     *
+     * @param line  The line being decoded.
+     * @param start The index of the first character of the field.
+     * @param end   The end of the field.
+     * @return The trimmed field.
+     */
+    static String getTrimmedField(String line, int start, int end) {
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return line.substring(start, end);
+    }
+}
@@ -1,21 +1,181 @@
 package myapp.quirkbot;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
- * TaskList class helps to manage the tasks present inside the task list
+ * TaskList class helps to manage the tasks present inside the task list.
+ * The tasks are kept in a {@link TaskTree}, so looking up or deleting a task by its position takes O(log n) time.
+ * While tasks are still being loaded in the background, each method waits only until the tasks it needs
+ * have arrived: positional lookups wait for their index, while whole-list operations wait for the full load.
+ * Once a {@link SearchIndex} is attached, it is kept up to date by every addition and deletion,
+ * and searches only check the tasks it returns as candidates, which it returns by id.
+ * Keywords of three or more characters are narrowed down by a {@link TrigramIndex} instead,
+ * which is built on the first search and then kept up to date by every addition and deletion.
+ * Every addition, deletion and change in completion status is reported to the change listener, if one is set.
+ * Each task is also given an id when it joins the list, and can be looked up by that id in O(1) time however
+ * its position changes. A task keeps any id it already has, as long as the ids stay in ascending order,
+ * and any other task is given the next id. Ids are never reused while the list exists. Only the sharded storage
+ * saves the ids, so the tasks loaded from any other storage are numbered afresh from 0 at each launch.
+ * The ids are kept in a {@link TaskIdMap}, which shrinks as tasks are deleted.
+ * Deletions and tasks whose completion status changed are remembered until they are taken by a save,
+ * so that saving the changes takes time in proportion to the number of changes rather than the number of tasks.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private final TaskTree tasks;
+    private final ArrayList<Integer> deletedIndices = new ArrayList<>();
+    private final HashSet<Task> changedTasks = new HashSet<>();
+    private final TaskIdMap tasksById = new TaskIdMap();
+    private long nextId = 0;
+    private boolean isLoading = false;
+    private SearchIndex searchIndex;
+    private TrigramIndex trigramIndex;
+    private Runnable changeListener;
 
     /**
      * Constructs an empty TaskList.
-     * Initializes the task list as an empty ArrayList.
+     * Initializes the task list as an empty TaskTree.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this.tasks = new TaskTree();
+    }
+
+    /**
+     * Marks the task list as still being loaded in the background.
+     */
+    public synchronized void beginLoading() {
+        isLoading = true;
+    }
+
+    /**
+     * Appends a page of tasks read from storage to the end of the list.
+     * The tasks are already saved, so they are not remembered as changed.
+     *
+     * @param page The tasks that were loaded.
+     */
+    public synchronized void appendLoadedTasks(List<Task> page) {
+        assert page != null : "Loaded page should not be null.";
+        for (Task task : page) {
+            register(task);
+            if (trigramIndex != null) {
+                trigramIndex.addTask(task);
+            }
+        }
+        tasks.addAll(page);
+        notifyAll();
+    }
+
+    /**
+     * Marks the task list as fully loaded and wakes up any command waiting for tasks.
+     */
+    public synchronized void finishLoading() {
+        isLoading = false;
+        notifyAll();
+    }
+
+    /**
+     * Blocks until every task has been loaded.
+     */
+    public synchronized void awaitLoaded() {
+        awaitSize(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Blocks until the list holds at least the specified number of tasks or loading has finished.
+     *
+     * @param minSize The number of tasks to wait for.
+     */
+    private synchronized void awaitSize(int minSize) {
+        while (isLoading && tasks.size() < minSize) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Attaches a search index to the list once its tasks have been loaded.
+     * The saved index is used if no task has been added or deleted since the load,
+     * otherwise a new index is built from the tasks in the list.
+     *
+     * @param savedIndex The index saved with the loaded tasks, or null if there is none.
+     */
+    public synchronized void attachSearchIndex(SearchIndex savedIndex) {
+        if (savedIndex != null && deletedIndices.isEmpty() && savedIndex.size() == tasks.size()) {
+            savedIndex.bindIds(tasks);
+            searchIndex = savedIndex;
+        } else {
+            searchIndex = SearchIndex.build(tasks);
+        }
+    }
+
+    /**
+     * Sets the listener which is run after every change to the tasks in the list.
+     *
+     * @param changeListener The listener, or null to stop reporting changes.
+     */
+    public synchronized void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * Reports a change to the tasks in the list to the change listener.
+     */
+    synchronized void notifyChanged() {
+        if (changeListener != null) {
+            changeListener.run();
+        }
+    }
+
+    /**
+     * Remembers that the completion status of a task in the list has changed since the changes were last taken.
+     *
+     * @param task The task whose completion status changed.
+     */
+    synchronized void markChanged(Task task) {
+        changedTasks.add(task);
+    }
+
+    /**
+     * Gives a task joining the list its owner and an id, which is the id it already has if that id is above
+     * every id given so far, or else the next id.
+     *
+     * @param task The task joining the list.
+     */
+    private void register(Task task) {
+        long id = Math.max(task.getId(), nextId);
+        task.setOwner(this);
+        task.setId(id);
+        tasksById.put(id, task);
+        nextId = id + 1;
+    }
+
+    /**
+     * Returns the task with the specified id.
+     *
+     * @param id The id of the task.
+     * @return The task with the id, or null if no task in the list has the id.
+     */
+    public synchronized Task getTaskById(long id) {
+        return tasksById.get(id);
+    }
+
+    /**
+     * Returns the position of the task with the specified id in O(log n) time.
+     *
+     * @param id The id of the task.
+     * @return The zero-based position of the task, or -1 if no task in the list has the id.
+     */
+    public synchronized int indexOfId(long id) {
+        awaitLoaded();
+        return tasks.indexOfId(id);
     }
 
     /**
@@ -23,9 +183,18 @@ public class TaskList {
      *
      * @param task The Task to be added to the list.
      */
-    public void addTask(Task task) {
+    public synchronized void addTask(Task task) {
         assert task != null : "Task to be added should not be null.";
+        awaitLoaded();
         tasks.add(task);
+        register(task);
+        if (trigramIndex != null) {
+            trigramIndex.addTask(task);
+        }
+        if (searchIndex != null) {
+            searchIndex.addTask(task);
+        }
+        notifyChanged();
     }
 
     /**
@@ -36,7 +205,8 @@ public class TaskList {
      * @param index The index of the Task to retrieve.
      * @return The Task at the specified index, or null if the index is out of bounds.
      */
-    public Task getTask(int index) {
+    public synchronized Task getTask(int index) {
+        awaitSize(index + 1);
         assert index >= 0 && index < tasks.size() : "Index should be within the bounds of the list.";
         return (index >= 0 && index < tasks.size()) ? tasks.get(index) : null;
     }
@@ -50,9 +220,42 @@ public class TaskList {
      * @return The Task that was removed from the list.
      * @throws IndexOutOfBoundsException If the index is out of bounds.
      */
-    public Task deleteTask(int index) {
+    public synchronized Task deleteTask(int index) {
+        awaitSize(index + 1);
         assert index >= 0 && index < tasks.size() : "Index should be within the bounds of the list.";
-        return tasks.remove(index);
+        Task removedTask = tasks.remove(index);
+        removedTask.setOwner(null);
+        tasksById.remove(removedTask.getId());
+        deletedIndices.add(index);
+        if (trigramIndex != null) {
+            trigramIndex.deleteTask(removedTask);
+        }
+        if (searchIndex != null) {
+            searchIndex.deleteTask(removedTask.getId());
+        }
+        notifyChanged();
+        return removedTask;
+    }
+
+    /**
+     * Takes a copy of the tasks in the list together with the changes made since the changes were last taken,
+     * then forgets those changes. Finding the position of each changed task takes O(log n) time.
+     * If the taken changes cannot be saved, the list must be saved in full instead.
+     *
+     * @return The tasks in the list and the changes made to them.
+     */
+    public synchronized TaskChanges takeChanges() {
+        awaitLoaded();
+        TreeMap<Integer, Task> positions = new TreeMap<>();
+        for (Task task : changedTasks) {
+            if (getTaskById(task.getId()) == task) {
+                positions.put(tasks.indexOfId(task.getId()), task);
+            }
+        }
+        TaskChanges changes = new TaskChanges(new ArrayList<>(tasks), new ArrayList<>(deletedIndices), positions);
+        deletedIndices.clear();
+        changedTasks.clear();
+        return changes;
     }
 
     /**
@@ -60,17 +263,52 @@ public class TaskList {
      *
      * @return The number of tasks in the list.
      */
-    public int size() {
+    public synchronized int size() {
+        awaitLoaded();
         return tasks.size();
     }
 
     /**
-     * Returns the list of Task objects.
+     * Returns a copy of the list of Task objects, in order.
+     * Changes to the returned list do not affect the task list.
      *
      * @return The ArrayList of tasks.
      */
-    public ArrayList<Task> getTasks() {
-        return tasks;
+    public synchronized ArrayList<Task> getTasks() {
+        awaitLoaded();
+        return new ArrayList<>(tasks);
+    }
+
+    /**
+     * Searches for tasks whose descriptions contain all, or any, of the words in the query as whole words.
+     * Words are the runs of letters and digits in the query, matched without regard to case.
+     *
+     * @param query      The words to search for.
+     * @param isMatchAll Whether a task must contain every word, rather than any of them.
+     * @return A list of matching tasks, in list order.
+     */
+    public synchronized List<Task> searchWords(String query, boolean isMatchAll) {
+        assert query != null : "Search query should not be null.";
+        awaitLoaded();
+        List<String> words = SearchIndex.getTerms(query);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(getSearchIndex().findWordMatches(words, isMatchAll))
+                .mapToObj(this::getTaskById)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the search index, building one from the tasks in the list if none has been attached.
+     *
+     * @return The search index.
+     */
+    private SearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = SearchIndex.build(tasks);
+        }
+        return searchIndex;
     }
 
     /**
@@ -79,10 +317,29 @@ public class TaskList {
      * @param keyword The keyword to search for.
      * @return A list of tasks containing the keyword.
      */
-    public List<Task> searchTasks(String keyword) {
+    public synchronized List<Task> searchTasks(String keyword) {
         assert keyword != null : "Search keyword should not be null.";
-        return tasks.stream()
-                .filter(task -> task.getDescription().toLowerCase().contains(keyword.toLowerCase()))
+        awaitLoaded();
+        String lowerCaseKeyword = keyword.toLowerCase();
+        if (lowerCaseKeyword.length() >= TrigramIndex.MIN_KEYWORD_LENGTH) {
+            if (trigramIndex == null) {
+                trigramIndex = TrigramIndex.build(tasks, id -> tasksById.get(id) != null);
+            }
+            return Arrays.stream(trigramIndex.findCandidates(lowerCaseKeyword))
+                    .mapToObj(tasksById::get)
+                    .filter(task -> task != null && task.getLowerCaseDescription().contains(lowerCaseKeyword))
+                    .collect(Collectors.toList());
+        }
+
+        long[] candidates = getSearchIndex().findCandidates(keyword);
+        if (candidates == null) {
+            return tasks.stream()
+                    .filter(task -> task.getLowerCaseDescription().contains(lowerCaseKeyword))
+                    .collect(Collectors.toList());
+        }
+        return Arrays.stream(candidates)
+                .mapToObj(this::getTaskById)
+                .filter(task -> task.getLowerCaseDescription().contains(lowerCaseKeyword))
                 .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,137 @@
+package myapp.quirkbot;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * TaskReader class which reads tasks from a task file a page at a time.
+ * Text files are read line by line, compressed files are read line by line as each block is decompressed,
+ * while binary files are read into memory and decoded record by record.
+ * The journal checkpoint stored with the tasks is read when the file is opened.
+ * Text is always decoded as UTF-8, which is how every format writes it, whatever the platform's default charset.
+ */
+public class TaskReader implements Closeable {
+    private final BufferedReader reader;
+    private final BinaryTaskFile binaryFile;
+    private final CompressedTaskFile compressedFile;
+    private int journalCheckpoint = 0;
+    private int nextIndex = 0;
+
+    private TaskReader(BufferedReader reader, BinaryTaskFile binaryFile, CompressedTaskFile compressedFile) {
+        this.reader = reader;
+        this.binaryFile = binaryFile;
+        this.compressedFile = compressedFile;
+        if (binaryFile != null) {
+            this.journalCheckpoint = binaryFile.getJournalCheckpoint();
+        } else if (compressedFile != null) {
+            this.journalCheckpoint = compressedFile.getJournalCheckpoint();
+        }
+    }
+
+    /**
+     * Opens a reader over the task file at the specified path.
+     *
+     * @param filePath The path to the task file.
+     * @param format   The format the task file is stored in.
+     * @return A reader positioned at the first task in the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static TaskReader open(String filePath, TaskFileFormat format) throws IOException {
+        assert filePath != null : "File path should not be null.";
+        if (format == TaskFileFormat.TEXT) {
+            TaskReader textReader = new TaskReader(new BufferedReader(new InputStreamReader(
+                    new FileInputStream(filePath), StandardCharsets.UTF_8)), null, null);
+            textReader.readCheckpointLine();
+            return textReader;
+        }
+        if (new File(filePath).length() == 0) {
+            return new TaskReader(null, null, null);
+        }
+        if (format == TaskFileFormat.COMPRESSED) {
+            CompressedTaskFile file = CompressedTaskFile.open(filePath);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(file.openStream(),
+                    StandardCharsets.UTF_8));
+            return new TaskReader(reader, null, file);
+        }
+        return new TaskReader(null, BinaryTaskFile.open(filePath), null);
+    }
+
+    /**
+     * Consumes the checkpoint line at the start of a text file, if there is one.
+     *
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If the checkpoint line is malformed.
+     */
+    private void readCheckpointLine() throws IOException {
+        char[] prefix = new char[TaskLineDecoder.CHECKPOINT_PREFIX.length()];
+        reader.mark(prefix.length);
+        int read = reader.read(prefix, 0, prefix.length);
+        reader.reset();
+        if (read == prefix.length && TaskLineDecoder.CHECKPOINT_PREFIX.equals(new String(prefix))) {
+            journalCheckpoint = TaskLineDecoder.parseCheckpoint(reader.readLine());
+        }
+    }
+
+    /**
+     * Returns the first journal segment whose records are not in the file.
+     *
+     * @return The journal checkpoint, which is 0 for files saved without a journal.
+     */
+    public int getJournalCheckpoint() {
+        return journalCheckpoint;
+    }
+
+    /**
+     * Reads up to the specified number of tasks into the provided list.
+     * Malformed lines are reported and skipped. Tasks decoded before a malformed binary record
+     * are kept in the list when the exception is thrown.
+     *
+     * @param page     The list to which the tasks will be added.
+     * @param maxCount The maximum number of tasks to read.
+     * @return The number of tasks read, which is less than maxCount only at the end of the file.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If an entry has an unknown task type.
+     */
+    public int readPage(List<Task> page, int maxCount) throws IOException {
+        assert page != null : "Page should not be null.";
+        int count = 0;
+        if (reader != null) {
+            String line;
+            while (count < maxCount && (line = reader.readLine()) != null) {
+                Task task = Storage.parseStoredTask(line);
+                if (task != null) {
+                    page.add(task);
+                    count++;
+                }
+            }
+        } else if (binaryFile != null) {
+            while (count < maxCount && nextIndex < binaryFile.size()) {
+                page.add(binaryFile.getTask(nextIndex));
+                nextIndex++;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Closes the underlying file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+        if (compressedFile != null) {
+            compressedFile.close();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package myapp.quirkbot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * TaskSnapshotCache class which keeps a copy of the decoded tasks next to the task file for a fast warm start.
+ * The cache is written after a clean exit, stamped with the length and modification time of the task file,
+ * and is only used while both still match, so checking it never reads the task file. A modification time can be
+ * too coarse to tell two saves of the same length apart, so the cache is deleted as it is consumed, and a launch
+ * only ever reads a cache written by the exit just before it. The cache also holds
+ * a CRC32C checksum of its own contents, so a cache damaged on disk is ignored rather than decoded.
+ * Its fields are stored column by column after a header: the task types, the completion statuses,
+ * the first and second dates as seconds since the epoch, the description lengths, and finally the descriptions,
+ * so the whole cache is read with one bulk read and each column is copied out in one call without parsing any text.
+ */
+public class TaskSnapshotCache {
+    static final int MAGIC = 0x51424843;
+    static final int VERSION = 2;
+    static final int CRC_OFFSET = 12;
+    static final int TASK_FILE_LENGTH_OFFSET = 16;
+    static final int TASK_FILE_MODIFIED_OFFSET = 24;
+    static final int HEADER_SIZE = 32;
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    private TaskSnapshotCache() {
+    }
+
+    /**
+     * Loads the cached tasks, if the cache was written for the current contents of the task file.
+     *
+     * @param cachePath    The path to the cache file.
+     * @param taskFilePath The path to the task file the cache belongs to.
+     * @return The cached tasks, or null if there is no cache or it does not match the task file.
+     */
+    public static ArrayList<Task> load(String cachePath, String taskFilePath) {
+        assert cachePath != null && taskFilePath != null : "File paths should not be null.";
+        File cacheFile = new File(cachePath);
+        File taskFile = new File(taskFilePath);
+        if (cacheFile.length() < HEADER_SIZE || cacheFile.length() > Integer.MAX_VALUE) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate((int) cacheFile.length());
+            try (FileChannel channel = FileChannel.open(Paths.get(cachePath), StandardOpenOption.READ)) {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        return null;
+                    }
+                }
+            }
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getLong(TASK_FILE_LENGTH_OFFSET) != taskFile.length()
+                    || buffer.getLong(TASK_FILE_MODIFIED_OFFSET) != taskFile.lastModified()
+                    || buffer.getInt(CRC_OFFSET) != checksum(buffer)) {
+                return null;
+            }
+            return decode(buffer, buffer.getInt(8));
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException
+                | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Loads the cached tasks and deletes the cache, so that it cannot be read again after the task file changes.
+     * A cache that cannot be deleted is not used.
+     *
+     * @param cachePath    The path to the cache file.
+     * @param taskFilePath The path to the task file the cache belongs to.
+     * @return The cached tasks, or null if there is no usable cache.
+     */
+    public static ArrayList<Task> consume(String cachePath, String taskFilePath) {
+        ArrayList<Task> tasks = load(cachePath, taskFilePath);
+        try {
+            Files.deleteIfExists(Paths.get(cachePath));
+        } catch (IOException e) {
+            System.out.println("An error occurred while deleting the task cache.");
+            return null;
+        }
+        return tasks;
+    }
+
+    /**
+     * Decodes the columns of the cache into tasks.
+     *
+     * @param buffer The contents of the cache file.
+     * @param count  The number of cached tasks.
+     * @return The cached tasks.
+     * @throws IllegalArgumentException  If a task has an unknown type.
+     * @throws IndexOutOfBoundsException If the cache is truncated.
+     */
+    private static ArrayList<Task> decode(ByteBuffer buffer, int count) {
+        byte[] types = new byte[count];
+        byte[] flags = new byte[count];
+        long[] firstDates = new long[count];
+        long[] secondDates = new long[count];
+        int[] lengths = new int[count];
+        buffer.position(HEADER_SIZE);
+        buffer.get(types);
+        buffer.get(flags);
+        buffer.asLongBuffer().get(firstDates);
+        buffer.position(buffer.position() + count * Long.BYTES);
+        buffer.asLongBuffer().get(secondDates);
+        buffer.position(buffer.position() + count * Long.BYTES);
+        buffer.asIntBuffer().get(lengths);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+
+        byte[] descriptions = buffer.array();
+        int offset = buffer.position();
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String description = new String(descriptions, offset, lengths[i], StandardCharsets.UTF_8);
+            offset += lengths[i];
+            Task task;
+            if (types[i] == 'T') {
+                task = new ToDo(description);
+            } else if (types[i] == 'D') {
+                task = new Deadline(description, fromEpochSeconds(firstDates[i]));
+            } else if (types[i] == 'E') {
+                task = new Event(description, fromEpochSeconds(firstDates[i]), fromEpochSeconds(secondDates[i]));
+            } else {
+                throw new IllegalArgumentException("Unknown task type");
+            }
+            if (flags[i] == 1) {
+                task.markDone();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes the provided tasks to the cache, stamped with the current length and modification time
+     * of the task file.
+     * The cache is written to a temporary file first and then moved into place.
+     *
+     * @param cachePath    The path to the cache file.
+     * @param taskFilePath The path to the task file the tasks were just saved to.
+     * @param tasks        The tasks in the task file, in list order.
+     * @throws IOException If the cache cannot be written.
+     */
+    public static void write(String cachePath, String taskFilePath, List<Task> tasks) throws IOException {
+        assert cachePath != null && taskFilePath != null : "File paths should not be null.";
+        assert tasks != null : "Task list should not be null.";
+        int count = tasks.size();
+        byte[][] descriptions = new byte[count][];
+        long descriptionSize = 0;
+        for (int i = 0; i < count; i++) {
+            descriptions[i] = tasks.get(i).getDescription().getBytes(StandardCharsets.UTF_8);
+            descriptionSize += descriptions[i].length;
+        }
+        long fileSize = HEADER_SIZE + (long) count * (2 + 2 * Long.BYTES + Integer.BYTES) + descriptionSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Too many tasks to be cached");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) fileSize);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(count);
+        out.putInt(0);
+        out.putLong(new File(taskFilePath).length());
+        out.putLong(new File(taskFilePath).lastModified());
+        for (Task task : tasks) {
+            out.put(getType(task));
+        }
+        for (Task task : tasks) {
+            out.put((byte) (task.getDone() ? 1 : 0));
+        }
+        for (Task task : tasks) {
+            out.putLong(toEpochSeconds(task.getStartDate()));
+        }
+        for (Task task : tasks) {
+            out.putLong(toEpochSeconds(task instanceof Event ? ((Event) task).getEventTo() : null));
+        }
+        for (byte[] description : descriptions) {
+            out.putInt(description.length);
+        }
+        for (byte[] description : descriptions) {
+            out.put(description);
+        }
+        out.putInt(CRC_OFFSET, checksum(out));
+        out.flip();
+
+        Path temp = Paths.get(cachePath + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        Files.move(temp, Paths.get(cachePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Computes the CRC32C checksum of the cached tasks, which is everything after the header.
+     *
+     * @param buffer The contents of the cache file, which are left unchanged.
+     * @return The checksum.
+     */
+    private static int checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(buffer.capacity()).position(HEADER_SIZE));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the type letter of a task.
+     *
+     * @param task The task.
+     * @return 'D' for a Deadline, 'E' for an Event, or 'T' for any other task.
+     */
+    private static byte getType(Task task) {
+        if (task instanceof Deadline) {
+            return 'D';
+        } else if (task instanceof Event) {
+            return 'E';
+        }
+        return 'T';
+    }
+
+    /**
+     * Converts a date and time into seconds since the epoch.
+     *
+     * @param dateTime The date and time to convert, which may be null.
+     * @return The seconds since the epoch, or {@link #NO_DATE} if the date and time is null.
+     */
+    private static long toEpochSeconds(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts seconds since the epoch back into a date and time.
+     *
+     * @param epochSeconds The seconds since the epoch, or {@link #NO_DATE}.
+     * @return The date and time, or null if there is no date.
+     */
+    private static LocalDateTime fromEpochSeconds(long epochSeconds) {
+        return epochSeconds == NO_DATE ? null : LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,350 @@
+package myapp.quirkbot;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * TaskTree class which keeps a list of tasks in an order-statistic tree, so that looking up, inserting and removing
+ * the task at any position takes O(log n) time instead of shifting the rest of the list.
+ * The tree is a treap keyed implicitly by position: every node holds the size of its subtree, so a position is found
+ * by walking down from the root, while random priorities kept in heap order keep the tree balanced with high
+ * probability. Tasks appended in bulk are built into a balanced subtree first and then joined on in one step.
+ */
+public class TaskTree extends AbstractList<Task> {
+    private final Random random = new Random();
+    private Node root;
+
+    /**
+     * Returns the number of tasks in the tree.
+     *
+     * @return The number of tasks.
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the task at the specified position.
+     *
+     * @param index The zero-based position of the task.
+     * @return The task at the position.
+     * @throws IndexOutOfBoundsException If the position is out of range.
+     */
+    @Override
+    public Task get(int index) {
+        return findNode(index).task;
+    }
+
+    /**
+     * Replaces the task at the specified position.
+     *
+     * @param index The zero-based position of the task.
+     * @param task  The task to store at the position.
+     * @return The task previously at the position.
+     * @throws IndexOutOfBoundsException If the position is out of range.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        Node node = findNode(index);
+        Task previous = node.task;
+        node.task = task;
+        return previous;
+    }
+
+    /**
+     * Inserts a task at the specified position, shifting the positions of the tasks after it.
+     *
+     * @param index The zero-based position at which to insert the task.
+     * @param task  The task to be inserted.
+     * @throws IndexOutOfBoundsException If the position is out of range.
+     */
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node[] parts = split(root, index);
+        root = merge(merge(parts[0], new Node(task, random.nextInt())), parts[1]);
+        modCount++;
+    }
+
+    /**
+     * Removes the task at the specified position, shifting the positions of the tasks after it.
+     *
+     * @param index The zero-based position of the task.
+     * @return The removed task.
+     * @throws IndexOutOfBoundsException If the position is out of range.
+     */
+    @Override
+    public Task remove(int index) {
+        Task removedTask = get(index);
+        root = remove(root, index);
+        modCount++;
+        return removedTask;
+    }
+
+    /**
+     * Appends every task in the collection, building them into a balanced subtree which is then joined on.
+     *
+     * @param tasks The tasks to be appended, in order.
+     * @return true if any task was appended, false otherwise.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Task> tasks) {
+        if (tasks.isEmpty()) {
+            return false;
+        }
+        Task[] array = tasks.toArray(new Task[0]);
+        root = merge(root, build(array, 0, array.length));
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the position of the task with the specified id in O(log n) time.
+     * The tasks must be in ascending order of id, as they are in a {@link TaskList}, which only ever appends them,
+     * so the task is found by walking down from the root like a search tree keyed by id.
+     *
+     * @param id The id of the task.
+     * @return The zero-based position of the task, or -1 if no task in the tree has the id.
+     */
+    public int indexOfId(long id) {
+        Node node = root;
+        int index = 0;
+        while (node != null) {
+            long nodeId = node.task.getId();
+            if (id < nodeId) {
+                node = node.left;
+            } else if (id > nodeId) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes every task from the tree.
+     */
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    /**
+     * Returns an iterator which walks the tasks in order in O(n) time overall.
+     *
+     * @return An iterator over the tasks.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<Node> path = new ArrayDeque<>();
+            private Node next = root;
+
+            @Override
+            public boolean hasNext() {
+                return next != null || !path.isEmpty();
+            }
+
+            @Override
+            public Task next() {
+                while (next != null) {
+                    path.push(next);
+                    next = next.left;
+                }
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = path.pop();
+                next = node.right;
+                return node.task;
+            }
+        };
+    }
+
+    /**
+     * Finds the node at the specified position.
+     *
+     * @param index The zero-based position.
+     * @return The node at the position.
+     * @throws IndexOutOfBoundsException If the position is out of range.
+     */
+    private Node findNode(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Builds a balanced subtree holding a range of tasks, with priorities in heap order.
+     *
+     * @param tasks The tasks.
+     * @param from  The first position of the range.
+     * @param to    The position after the last in the range.
+     * @return The root of the subtree, or null if the range is empty.
+     */
+    private Node build(Task[] tasks, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node node = new Node(tasks[middle], random.nextInt());
+        node.left = build(tasks, from, middle);
+        node.right = build(tasks, middle + 1, to);
+        node.size = to - from;
+        siftDown(node);
+        return node;
+    }
+
+    /**
+     * Moves the priority of a node down below any child with a higher priority.
+     * Only priorities are swapped, so the order of the tasks is unchanged.
+     *
+     * @param node The node whose subtrees are already in heap order.
+     */
+    private static void siftDown(Node node) {
+        while (true) {
+            Node highest = node;
+            if (node.left != null && node.left.priority > highest.priority) {
+                highest = node.left;
+            }
+            if (node.right != null && node.right.priority > highest.priority) {
+                highest = node.right;
+            }
+            if (highest == node) {
+                return;
+            }
+            int priority = node.priority;
+            node.priority = highest.priority;
+            highest.priority = priority;
+            node = highest;
+        }
+    }
+
+    /**
+     * Splits a subtree into the nodes before a position and the nodes from that position on.
+     *
+     * @param node  The root of the subtree.
+     * @param index The number of nodes to put in the first part.
+     * @return The roots of the two parts.
+     */
+    private static Node[] split(Node node, int index) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            Node[] parts = split(node.left, index);
+            node.left = parts[1];
+            update(node);
+            parts[1] = node;
+            return parts;
+        }
+        Node[] parts = split(node.right, index - leftSize - 1);
+        node.right = parts[0];
+        update(node);
+        parts[0] = node;
+        return parts;
+    }
+
+    /**
+     * Joins two subtrees, with every node of the first coming before every node of the second.
+     *
+     * @param left  The root of the first subtree.
+     * @param right The root of the second subtree.
+     * @return The root of the joined subtree.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Removes the node at a position from a subtree.
+     *
+     * @param node  The root of the subtree.
+     * @param index The zero-based position within the subtree.
+     * @return The new root of the subtree.
+     */
+    private static Node remove(Node node, int index) {
+        int leftSize = size(node.left);
+        if (index == leftSize) {
+            return merge(node.left, node.right);
+        }
+        if (index < leftSize) {
+            node.left = remove(node.left, index);
+        } else {
+            node.right = remove(node.right, index - leftSize - 1);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Returns the number of nodes in a subtree.
+     *
+     * @param node The root of the subtree, which may be null.
+     * @return The number of nodes.
+     */
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Recomputes the size of a node from its children.
+     *
+     * @param node The node.
+     */
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    /**
+     * Node class which holds one task of the tree.
+     */
+    private static class Node {
+        private Task task;
+        private int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        Node(Task task, int priority) {
+            this.task = task;
+            this.priority = priority;
+        }
+    }
+}
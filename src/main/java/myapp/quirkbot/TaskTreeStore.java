@@ -0,0 +1,702 @@
+package myapp.quirkbot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * TaskTreeStore class which stores tasks on disk in a B+tree of fixed-size pages, keyed by task id.
+ * Tasks are stored in the leaves in the " | " separated text format, and only the pages on the path to a task
+ * are read to get, put or delete it, so the number of stored tasks is not limited by the size of the heap.
+ * Pages are cached in a buffer pool of a fixed number of pages, which writes changed pages back to the file
+ * when they are evicted in least recently used order or when the store is flushed.
+ * Leaves are not merged when tasks are deleted, so pages emptied by deletions stay in the tree.
+ * <p>
+ * The store is crash safe through copy-on-write pages. The first change to a page since the last flush moves it,
+ * and every page on the path to it, to a page the committed tree does not use, so a page the committed tree
+ * refers to is never overwritten, however pages are evicted. A flush writes the changed pages, syncs them, and then
+ * commits them by writing the tree root into whichever of the two meta pages is older, with a generation number and
+ * a CRC32C checksum. Opening the store takes the valid meta page with the highest generation, so a crash at any
+ * point leaves the tree as it was at the last flush that completed. Every page also carries its own checksum.
+ * Pages given up by a flush are only reused after it has committed, and their numbers are saved in a chain of
+ * free-list pages named by the meta page, so they are not lost when the store is reopened.
+ */
+public class TaskTreeStore implements Closeable {
+    static final int PAGE_SIZE = 4096;
+    static final int DEFAULT_CACHE_PAGES = 256;
+    static final int MAX_TASK_SIZE = PAGE_SIZE / 4;
+
+    private static final int MAGIC = 0x51425454;
+    private static final int VERSION = 2;
+    private static final int[] META_PAGES = {0, 1};
+    private static final int META_ROOT_OFFSET = 12;
+    private static final int META_PAGE_COUNT_OFFSET = 16;
+    private static final int META_SIZE_OFFSET = 20;
+    private static final int META_GENERATION_OFFSET = 28;
+    private static final int META_FREE_LIST_OFFSET = 36;
+    private static final int META_CRC_OFFSET = 40;
+    private static final int PAGE_CRC_OFFSET = PAGE_SIZE - Integer.BYTES;
+    private static final int NODE_HEADER_SIZE = 7;
+    private static final int LEAF_ENTRY_OVERHEAD = 10;
+    private static final int INTERNAL_ENTRY_SIZE = 12;
+    private static final int FREE_LIST_HEADER_SIZE = 9;
+    private static final int FREE_LIST_CAPACITY = (PAGE_CRC_OFFSET - FREE_LIST_HEADER_SIZE) / Integer.BYTES;
+    private static final byte LEAF = 0;
+    private static final byte INTERNAL = 1;
+    private static final byte FREE_LIST = 2;
+    private static final int NO_PAGE = -1;
+
+    private final FileChannel channel;
+    private final LinkedHashMap<Integer, Node> bufferPool;
+    private final HashSet<Integer> freshPages = new HashSet<>();
+    private final ArrayDeque<Integer> freePages = new ArrayDeque<>();
+    private final List<Integer> pendingFreePages = new ArrayList<>();
+    private List<Integer> freeListPages = new ArrayList<>();
+    private int rootPage;
+    private int pageCount;
+    private long size;
+    private long generation;
+
+    /**
+     * Opens the tree store at the specified path with the default buffer pool size, creating it if needed.
+     *
+     * @param filePath The path to the tree store file.
+     * @throws IOException If the file cannot be opened or is not a tree store file.
+     */
+    public TaskTreeStore(String filePath) throws IOException {
+        this(filePath, DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * Opens the tree store at the specified path, creating it if needed.
+     *
+     * @param filePath   The path to the tree store file.
+     * @param cachePages The number of pages kept in the buffer pool.
+     * @throws IOException If the file cannot be opened or is not a tree store file.
+     */
+    public TaskTreeStore(String filePath, int cachePages) throws IOException {
+        assert filePath != null : "File path should not be null.";
+        assert cachePages >= 3 : "Buffer pool should hold at least three pages.";
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.bufferPool = new LinkedHashMap<>(cachePages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+                if (size() <= cachePages) {
+                    return false;
+                }
+                writeBack(eldest.getValue());
+                return true;
+            }
+        };
+
+        try {
+            if (channel.size() == 0) {
+                pageCount = META_PAGES.length;
+                Node root = new Node(allocatePage(), true);
+                rootPage = root.pageId;
+                markDirty(root);
+                flush();
+            } else {
+                readMeta();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of tasks in the store.
+     *
+     * @return The number of tasks.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Returns the task stored with the specified id.
+     *
+     * @param id The id of the task.
+     * @return The task, or null if no task is stored with the id.
+     * @throws IOException If a page cannot be read.
+     */
+    public synchronized Task get(long id) throws IOException {
+        Node leaf = findLeaf(id);
+        int index = Collections.binarySearch(leaf.keys, id);
+        return index >= 0 ? decode(leaf.values.get(index)) : null;
+    }
+
+    /**
+     * Stores the task with the specified id, replacing any task already stored with the id.
+     * The change is only durable once the store is flushed.
+     *
+     * @param id   The id of the task.
+     * @param task The task to be stored.
+     * @throws IOException              If a page cannot be read.
+     * @throws IllegalArgumentException If the task is too large to be stored in a page.
+     */
+    public synchronized void put(long id, Task task) throws IOException {
+        assert task != null : "Task should not be null.";
+        byte[] value = task.toFileFormat().getBytes(StandardCharsets.UTF_8);
+        if (value.length > MAX_TASK_SIZE) {
+            throw new IllegalArgumentException("Task is too large to be stored");
+        }
+
+        Node oldRoot = makeWritable(getNode(rootPage));
+        rootPage = oldRoot.pageId;
+        Split split = insert(oldRoot, id, value);
+        if (split != null) {
+            Node root = new Node(allocatePage(), false);
+            root.children.add(rootPage);
+            root.keys.add(split.key);
+            root.children.add(split.rightPage);
+            markDirty(root);
+            rootPage = root.pageId;
+        }
+    }
+
+    /**
+     * Removes the task stored with the specified id.
+     * The change is only durable once the store is flushed.
+     *
+     * @param id The id of the task.
+     * @return true if a task was removed, false if no task is stored with the id.
+     * @throws IOException If a page cannot be read.
+     */
+    public synchronized boolean delete(long id) throws IOException {
+        if (Collections.binarySearch(findLeaf(id).keys, id) < 0) {
+            return false;
+        }
+        Node node = makeWritable(getNode(rootPage));
+        rootPage = node.pageId;
+        while (!node.isLeaf) {
+            node = getWritableChild(node, childIndex(node, id));
+        }
+        int index = Collections.binarySearch(node.keys, id);
+        node.keys.remove(index);
+        node.values.remove(index);
+        markDirty(node);
+        size--;
+        return true;
+    }
+
+    /**
+     * Writes every changed page to the file, syncs it, and then commits the changes by writing the older meta page.
+     * Once this returns, the store reopens with every change made so far.
+     *
+     * @throws IOException If a page cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        for (Node node : bufferPool.values()) {
+            writeBack(node);
+        }
+        List<Integer> newFreeListPages = new ArrayList<>();
+        while ((long) newFreeListPages.size() * FREE_LIST_CAPACITY
+                < freePages.size() + pendingFreePages.size() + freeListPages.size()) {
+            newFreeListPages.add(freePages.isEmpty() ? pageCount++ : freePages.pop());
+        }
+        List<Integer> reusablePages = new ArrayList<>(freePages);
+        reusablePages.addAll(pendingFreePages);
+        reusablePages.addAll(freeListPages);
+        writeFreeList(newFreeListPages, reusablePages);
+        channel.force(false);
+
+        ByteBuffer meta = ByteBuffer.allocate(PAGE_SIZE);
+        meta.putInt(0, MAGIC);
+        meta.putInt(4, VERSION);
+        meta.putInt(8, PAGE_SIZE);
+        meta.putInt(META_ROOT_OFFSET, rootPage);
+        meta.putInt(META_PAGE_COUNT_OFFSET, pageCount);
+        meta.putLong(META_SIZE_OFFSET, size);
+        meta.putLong(META_GENERATION_OFFSET, generation + 1);
+        meta.putInt(META_FREE_LIST_OFFSET, newFreeListPages.isEmpty() ? NO_PAGE : newFreeListPages.get(0));
+        meta.putInt(META_CRC_OFFSET, checksum(meta, META_CRC_OFFSET));
+        writePage(META_PAGES[(int) ((generation + 1) % META_PAGES.length)], meta);
+        channel.force(false);
+
+        generation++;
+        freePages.clear();
+        freePages.addAll(reusablePages);
+        pendingFreePages.clear();
+        freshPages.clear();
+        freeListPages = newFreeListPages;
+    }
+
+    /**
+     * Flushes the store and closes the underlying file.
+     *
+     * @throws IOException If the file cannot be written or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the tree metadata from the newest valid meta page, then reads the free list it names.
+     *
+     * @throws IOException If neither meta page is valid, or the free list cannot be read.
+     */
+    private void readMeta() throws IOException {
+        ByteBuffer current = null;
+        for (int metaPage : META_PAGES) {
+            ByteBuffer meta = readPage(metaPage);
+            if (meta.getInt(0) == MAGIC && meta.getInt(4) == VERSION && meta.getInt(8) == PAGE_SIZE
+                    && meta.getInt(META_CRC_OFFSET) == checksum(meta, META_CRC_OFFSET)
+                    && (current == null
+                            || meta.getLong(META_GENERATION_OFFSET) > current.getLong(META_GENERATION_OFFSET))) {
+                current = meta;
+            }
+        }
+        if (current == null) {
+            throw new IOException("Not a task tree store file");
+        }
+        rootPage = current.getInt(META_ROOT_OFFSET);
+        pageCount = current.getInt(META_PAGE_COUNT_OFFSET);
+        size = current.getLong(META_SIZE_OFFSET);
+        generation = current.getLong(META_GENERATION_OFFSET);
+
+        for (int page = current.getInt(META_FREE_LIST_OFFSET); page != NO_PAGE; ) {
+            ByteBuffer freeList = readCheckedPage(page);
+            if (freeList.get(0) != FREE_LIST) {
+                throw new IOException("Task tree store free list is corrupted");
+            }
+            freeListPages.add(page);
+            int count = freeList.getInt(5);
+            for (int i = 0; i < count; i++) {
+                freePages.add(freeList.getInt(FREE_LIST_HEADER_SIZE + i * Integer.BYTES));
+            }
+            page = freeList.getInt(1);
+        }
+    }
+
+    /**
+     * Writes the numbers of the reusable pages into a chain of free-list pages.
+     * The chain is written to pages which are already free under the committed meta page, or past its end,
+     * never to the pages freed by this flush or to the chain the committed meta page names.
+     *
+     * @param chain         The pages of the chain, first page first.
+     * @param reusablePages The pages which are free once the flush is committed.
+     * @throws IOException If a page cannot be written.
+     */
+    private void writeFreeList(List<Integer> chain, List<Integer> reusablePages) throws IOException {
+        for (int i = 0; i < chain.size(); i++) {
+            int from = i * FREE_LIST_CAPACITY;
+            int count = Math.min(FREE_LIST_CAPACITY, reusablePages.size() - from);
+            ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+            page.put(0, FREE_LIST);
+            page.putInt(1, i + 1 < chain.size() ? chain.get(i + 1) : NO_PAGE);
+            page.putInt(5, count);
+            for (int j = 0; j < count; j++) {
+                page.putInt(FREE_LIST_HEADER_SIZE + j * Integer.BYTES, reusablePages.get(from + j));
+            }
+            page.putInt(PAGE_CRC_OFFSET, checksum(page, PAGE_CRC_OFFSET));
+            writePage(chain.get(i), page);
+        }
+    }
+
+    /**
+     * Descends from the root to the leaf that holds or would hold the specified id.
+     *
+     * @param id The id to look for.
+     * @return The leaf for the id.
+     * @throws IOException If a page cannot be read.
+     */
+    private Node findLeaf(long id) throws IOException {
+        Node node = getNode(rootPage);
+        while (!node.isLeaf) {
+            node = getNode(node.children.get(childIndex(node, id)));
+        }
+        return node;
+    }
+
+    /**
+     * Returns the position of the child of an internal node that covers the specified id.
+     *
+     * @param node The internal node.
+     * @param id   The id to look for.
+     * @return The position of the child.
+     */
+    private static int childIndex(Node node, long id) {
+        int index = Collections.binarySearch(node.keys, id);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Inserts a value into the subtree rooted at the specified writable node, splitting nodes that overflow their page.
+     *
+     * @param node  The root of the subtree, which has already been made writable.
+     * @param id    The id of the value.
+     * @param value The encoded task.
+     * @return The split of the node if it overflowed, or null otherwise.
+     * @throws IOException If a page cannot be read.
+     */
+    private Split insert(Node node, long id, byte[] value) throws IOException {
+        if (node.isLeaf) {
+            int index = Collections.binarySearch(node.keys, id);
+            if (index >= 0) {
+                node.values.set(index, value);
+            } else {
+                node.keys.add(-index - 1, id);
+                node.values.add(-index - 1, value);
+                size++;
+            }
+            markDirty(node);
+            return node.getByteSize() > PAGE_CRC_OFFSET ? splitLeaf(node) : null;
+        }
+
+        int index = childIndex(node, id);
+        Split split = insert(getWritableChild(node, index), id, value);
+        if (split == null) {
+            return null;
+        }
+        node.keys.add(index, split.key);
+        node.children.add(index + 1, split.rightPage);
+        markDirty(node);
+        return node.getByteSize() > PAGE_CRC_OFFSET ? splitInternal(node) : null;
+    }
+
+    /**
+     * Moves the upper half of a leaf, by size, into a new leaf.
+     *
+     * @param leaf The leaf that overflowed its page.
+     * @return The first id of the new leaf and its page.
+     */
+    private Split splitLeaf(Node leaf) {
+        int half = (leaf.getByteSize() - NODE_HEADER_SIZE) / 2;
+        int splitIndex = 0;
+        for (int bytes = 0; bytes < half; splitIndex++) {
+            bytes += LEAF_ENTRY_OVERHEAD + leaf.values.get(splitIndex).length;
+        }
+
+        Node right = new Node(allocatePage(), true);
+        List<Long> movedKeys = leaf.keys.subList(splitIndex, leaf.keys.size());
+        List<byte[]> movedValues = leaf.values.subList(splitIndex, leaf.values.size());
+        right.keys.addAll(movedKeys);
+        right.values.addAll(movedValues);
+        movedKeys.clear();
+        movedValues.clear();
+        markDirty(leaf);
+        markDirty(right);
+        return new Split(right.keys.get(0), right.pageId);
+    }
+
+    /**
+     * Moves the upper half of an internal node into a new node, pushing the middle key up to the parent.
+     *
+     * @param node The internal node that overflowed its page.
+     * @return The middle key and the page of the new node.
+     */
+    private Split splitInternal(Node node) {
+        int middle = node.keys.size() / 2;
+        long middleKey = node.keys.get(middle);
+
+        Node right = new Node(allocatePage(), false);
+        List<Long> movedKeys = node.keys.subList(middle + 1, node.keys.size());
+        List<Integer> movedChildren = node.children.subList(middle + 1, node.children.size());
+        right.keys.addAll(movedKeys);
+        right.children.addAll(movedChildren);
+        movedKeys.clear();
+        movedChildren.clear();
+        node.keys.remove(middle);
+        markDirty(node);
+        markDirty(right);
+        return new Split(middleKey, right.pageId);
+    }
+
+    /**
+     * Returns a child of a writable internal node, made writable in turn, and points the node at its new page.
+     *
+     * @param node  The writable internal node.
+     * @param index The position of the child.
+     * @return The writable child.
+     * @throws IOException If the page of the child cannot be read.
+     */
+    private Node getWritableChild(Node node, int index) throws IOException {
+        Node child = makeWritable(getNode(node.children.get(index)));
+        if (node.children.get(index) != child.pageId) {
+            node.children.set(index, child.pageId);
+            markDirty(node);
+        }
+        return child;
+    }
+
+    /**
+     * Moves a node to a fresh page the first time it is changed after a flush, so that the page the committed tree
+     * refers to is left as it is. The old page is freed once the next flush has committed.
+     *
+     * @param node The node about to be changed.
+     * @return The same node, on a page it may be written to.
+     */
+    private Node makeWritable(Node node) {
+        if (freshPages.contains(node.pageId)) {
+            return node;
+        }
+        bufferPool.remove(node.pageId);
+        pendingFreePages.add(node.pageId);
+        node.pageId = allocatePage();
+        markDirty(node);
+        return node;
+    }
+
+    /**
+     * Allocates a page which the committed tree does not use, reusing a freed page if there is one.
+     *
+     * @return The page.
+     */
+    private int allocatePage() {
+        int page = freePages.isEmpty() ? pageCount++ : freePages.pop();
+        freshPages.add(page);
+        return page;
+    }
+
+    /**
+     * Returns the node stored in the specified page, reading it into the buffer pool if it is not cached.
+     *
+     * @param pageId The page of the node.
+     * @return The node.
+     * @throws IOException If the page cannot be read.
+     */
+    private Node getNode(int pageId) throws IOException {
+        Node node = bufferPool.get(pageId);
+        if (node == null) {
+            node = Node.decode(pageId, readCheckedPage(pageId));
+            bufferPool.put(pageId, node);
+        }
+        return node;
+    }
+
+    /**
+     * Marks a node as changed and puts it back into the buffer pool,
+     * in case it was evicted while an operation was still holding it.
+     *
+     * @param node The changed node, which must be on a fresh page.
+     */
+    private void markDirty(Node node) {
+        assert freshPages.contains(node.pageId) : "Only fresh pages should be changed.";
+        node.isDirty = true;
+        bufferPool.put(node.pageId, node);
+    }
+
+    /**
+     * Writes a node to its page if it has changed since it was last written.
+     * Only fresh pages are ever changed, so this never overwrites a page the committed tree refers to.
+     *
+     * @param node The node to be written.
+     */
+    private void writeBack(Node node) {
+        if (!node.isDirty) {
+            return;
+        }
+        try {
+            writePage(node.pageId, node.encode());
+            node.isDirty = false;
+        } catch (IOException e) {
+            throw new IllegalStateException("An error occurred while writing a task tree page.", e);
+        }
+    }
+
+    /**
+     * Reads a whole page from the file and checks its checksum.
+     *
+     * @param pageId The page to read.
+     * @return A buffer holding the page.
+     * @throws IOException If the page cannot be read or its checksum does not match.
+     */
+    private ByteBuffer readCheckedPage(int pageId) throws IOException {
+        ByteBuffer page = readPage(pageId);
+        if (page.getInt(PAGE_CRC_OFFSET) != checksum(page, PAGE_CRC_OFFSET)) {
+            throw new IOException("Task tree store page is corrupted");
+        }
+        return page;
+    }
+
+    /**
+     * Reads a whole page from the file. Pages past the end of the file read as zeros.
+     *
+     * @param pageId The page to read.
+     * @return A buffer holding the page.
+     * @throws IOException If the page cannot be read.
+     */
+    private ByteBuffer readPage(int pageId) throws IOException {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        long position = (long) pageId * PAGE_SIZE;
+        while (page.hasRemaining()) {
+            int read = channel.read(page, position + page.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        page.clear();
+        return page;
+    }
+
+    /**
+     * Writes a whole page to the file.
+     *
+     * @param pageId The page to write.
+     * @param page   A buffer holding the page.
+     * @throws IOException If the page cannot be written.
+     */
+    private void writePage(int pageId, ByteBuffer page) throws IOException {
+        page.clear();
+        long position = (long) pageId * PAGE_SIZE;
+        while (page.hasRemaining()) {
+            channel.write(page, position + page.position());
+        }
+    }
+
+    /**
+     * Computes the CRC32C checksum of the start of a page.
+     *
+     * @param page   A buffer holding the page.
+     * @param length The number of bytes covered by the checksum.
+     * @return The checksum.
+     */
+    private static int checksum(ByteBuffer page, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(page.array(), 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Decodes a task stored in a leaf.
+     *
+     * @param value The encoded task.
+     * @return The task.
+     */
+    private static Task decode(byte[] value) {
+        return Storage.parseTask(new String(value, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Split class which describes the new right sibling created when a node splits.
+     */
+    private static class Split {
+        private final long key;
+        private final int rightPage;
+
+        Split(long key, int rightPage) {
+            this.key = key;
+            this.rightPage = rightPage;
+        }
+    }
+
+    /**
+     * Node class which holds one page of the tree in decoded form.
+     * A leaf holds sorted ids and their encoded tasks. It has no link to the next leaf, which would have to be
+     * copied along with every leaf it points to.
+     * An internal node holds sorted separator ids and one more child page than it has ids.
+     */
+    private static class Node {
+        private int pageId;
+        private final boolean isLeaf;
+        private final ArrayList<Long> keys = new ArrayList<>();
+        private final ArrayList<byte[]> values = new ArrayList<>();
+        private final ArrayList<Integer> children = new ArrayList<>();
+        private boolean isDirty = false;
+
+        Node(int pageId, boolean isLeaf) {
+            this.pageId = pageId;
+            this.isLeaf = isLeaf;
+        }
+
+        /**
+         * Returns the number of bytes the node takes up once encoded, not counting the page checksum.
+         *
+         * @return The encoded size of the node.
+         */
+        int getByteSize() {
+            if (!isLeaf) {
+                return NODE_HEADER_SIZE + keys.size() * INTERNAL_ENTRY_SIZE;
+            }
+            int byteSize = NODE_HEADER_SIZE;
+            for (byte[] value : values) {
+                byteSize += LEAF_ENTRY_OVERHEAD + value.length;
+            }
+            return byteSize;
+        }
+
+        /**
+         * Encodes the node into a page, followed by the checksum of the page.
+         *
+         * @return A buffer holding the page.
+         */
+        ByteBuffer encode() {
+            assert getByteSize() <= PAGE_CRC_OFFSET : "Node should fit in a page.";
+            ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+            page.put(isLeaf ? LEAF : INTERNAL);
+            page.putShort((short) keys.size());
+            if (isLeaf) {
+                page.putInt(NO_PAGE);
+                Iterator<byte[]> valueIterator = values.iterator();
+                for (long key : keys) {
+                    byte[] value = valueIterator.next();
+                    page.putLong(key);
+                    page.putShort((short) value.length);
+                    page.put(value);
+                }
+            } else {
+                page.putInt(children.get(0));
+                for (int i = 0; i < keys.size(); i++) {
+                    page.putLong(keys.get(i));
+                    page.putInt(children.get(i + 1));
+                }
+            }
+            page.putInt(PAGE_CRC_OFFSET, checksum(page, PAGE_CRC_OFFSET));
+            return page;
+        }
+
+        /**
+         * Decodes a node from a page whose checksum has been checked.
+         *
+         * @param pageId The page the node was read from.
+         * @param page   A buffer holding the page.
+         * @return The node.
+         * @throws IOException If the page does not hold a node.
+         */
+        static Node decode(int pageId, ByteBuffer page) throws IOException {
+            byte type = page.get();
+            if (type != LEAF && type != INTERNAL) {
+                throw new IOException("Task tree store page is corrupted");
+            }
+            Node node = new Node(pageId, type == LEAF);
+            int keyCount = page.getShort();
+            int firstChild = page.getInt();
+            if (node.isLeaf) {
+                for (int i = 0; i < keyCount; i++) {
+                    node.keys.add(page.getLong());
+                    byte[] value = new byte[page.getShort()];
+                    page.get(value);
+                    node.values.add(value);
+                }
+            } else {
+                node.children.add(firstChild);
+                for (int i = 0; i < keyCount; i++) {
+                    node.keys.add(page.getLong());
+                    node.children.add(page.getInt());
+                }
+            }
+            return node;
+        }
+    }
+}
@@ -25,14 +25,17 @@ public class ToDo extends Task {
      */
     public static ToDo parseTask(String taskData) {
         assert taskData != null : "Task data should not be null.";
-        String[] parts = taskData.split(" \\| ");
-        assert parts.length >= 3 : "Task data should have at least 3 parts.";
+        int statusStart = TaskLineDecoder.nextFieldStart(TaskLineDecoder.findFieldEnd(taskData, 0));
+        int statusEnd = TaskLineDecoder.findFieldEnd(taskData, statusStart);
+        assert TaskLineDecoder.hasNextField(taskData, statusEnd) : "Task data should have at least 3 parts.";
 
-        String description = parts[2].trim();
+        int descriptionStart = TaskLineDecoder.nextFieldStart(statusEnd);
+        int descriptionEnd = TaskLineDecoder.findFieldEnd(taskData, descriptionStart);
+        String description = TaskLineDecoder.getTrimmedField(taskData, descriptionStart, descriptionEnd);
         assert !description.isEmpty() : "Description should not be empty.";
 
         ToDo todo = new ToDo(description);
-        if (parts[1].trim().equals("1")) {
+        if (TaskLineDecoder.isDone(taskData, statusStart, statusEnd)) {
             todo.markDone();
         }
         return todo;
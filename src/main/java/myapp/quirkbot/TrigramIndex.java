@@ -0,0 +1,313 @@
+package myapp.quirkbot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * TrigramIndex class which maps every run of three characters in the lowercased task descriptions to the ids of
+ * the tasks containing it. A lowercased keyword of three or more characters can only be contained in a description
+ * that contains every one of its trigrams, so intersecting their posting lists gives a set of candidates which is
+ * never missing a match, and which a final contains check narrows down to exactly the tasks a full scan would find.
+ * Task ids only grow as tasks are added, so each posting list stays sorted by id.
+ * <p>
+ * The trigrams are kept in an open-addressing hash table keyed by the packed trigram itself, so no key is boxed.
+ * Deleting a task counts its id as dead in the posting list of each of its trigrams. Once half of a list is dead,
+ * the list is compacted by dropping the ids that are no longer live, and an emptied list is removed from the table,
+ * so each deletion costs amortized time in proportion to the length of its description. Until then, ids of deleted
+ * tasks may still be returned as candidates, and are skipped when the candidates are looked up.
+ */
+public class TrigramIndex {
+    static final int MIN_KEYWORD_LENGTH = 3;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final LongPredicate isLive;
+    private long[] trigrams = new long[MIN_CAPACITY];
+    private Postings[] postings = new Postings[MIN_CAPACITY];
+    private int size;
+
+    /**
+     * Constructs an empty TrigramIndex.
+     *
+     * @param isLive Tells whether the task with an id is still in the list, which compacting a posting list checks.
+     */
+    private TrigramIndex(LongPredicate isLive) {
+        this.isLive = isLive;
+    }
+
+    /**
+     * Builds a trigram index of the provided tasks.
+     *
+     * @param tasks  The tasks to be indexed, in the order their ids were given.
+     * @param isLive Tells whether the task with an id is still in the list.
+     * @return The index.
+     */
+    public static TrigramIndex build(List<Task> tasks, LongPredicate isLive) {
+        assert tasks != null : "Task list should not be null.";
+        assert isLive != null : "Liveness check should not be null.";
+        TrigramIndex index = new TrigramIndex(isLive);
+        for (Task task : tasks) {
+            index.addTask(task);
+        }
+        return index;
+    }
+
+    /**
+     * Indexes a task, which must have a higher id than every task indexed before it.
+     *
+     * @param task The task to be indexed.
+     */
+    public void addTask(Task task) {
+        assert task != null && task.getId() != Task.NO_ID : "Task should have an id.";
+        String text = task.getLowerCaseDescription();
+        long id = task.getId();
+        for (int i = 0; i + MIN_KEYWORD_LENGTH <= text.length(); i++) {
+            long trigram = getTrigram(text, i);
+            Postings list = get(trigram);
+            if (list == null) {
+                list = new Postings();
+                put(trigram, list);
+            }
+            list.add(id);
+        }
+    }
+
+    /**
+     * Counts a deleted task as dead in the posting list of each of its trigrams, compacting the lists
+     * that are at least half dead. The task must no longer be live when this is called.
+     *
+     * @param task The deleted task.
+     */
+    public void deleteTask(Task task) {
+        assert task != null && !isLive.test(task.getId()) : "Task should have been deleted.";
+        String text = task.getLowerCaseDescription();
+        long id = task.getId();
+        for (int i = 0; i + MIN_KEYWORD_LENGTH <= text.length(); i++) {
+            long trigram = getTrigram(text, i);
+            Postings list = get(trigram);
+            if (list == null || !list.markDead(id)) {
+                continue;
+            }
+            if (2 * list.deadCount >= list.size) {
+                list.compact(isLive);
+                if (list.size == 0) {
+                    remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the ids of the tasks whose lowercased descriptions may contain the lowercased keyword.
+     *
+     * @param lowerCaseKeyword The lowercased keyword, at least {@link #MIN_KEYWORD_LENGTH} characters long.
+     * @return The candidate ids in ascending order, which may include ids of deleted tasks.
+     */
+    public long[] findCandidates(String lowerCaseKeyword) {
+        assert lowerCaseKeyword.length() >= MIN_KEYWORD_LENGTH : "Keyword should be at least three characters long.";
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + MIN_KEYWORD_LENGTH <= lowerCaseKeyword.length(); i++) {
+            Postings list = get(getTrigram(lowerCaseKeyword, i));
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        Postings shortest = lists.get(0);
+        long[] candidates = new long[shortest.size];
+        int count = 0;
+        for (int i = 0; i < shortest.size; i++) {
+            long id = shortest.ids[i];
+            boolean isInAll = true;
+            for (int j = 1; j < lists.size() && isInAll; j++) {
+                isInAll = Arrays.binarySearch(lists.get(j).ids, 0, lists.get(j).size, id) >= 0;
+            }
+            if (isInAll) {
+                candidates[count++] = id;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Returns the number of distinct trigrams in the index.
+     *
+     * @return The number of trigrams.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the posting list of a trigram.
+     *
+     * @param trigram The packed trigram.
+     * @return The posting list, or null if no task contains the trigram.
+     */
+    private Postings get(long trigram) {
+        int mask = postings.length - 1;
+        for (int i = hash(trigram) & mask; postings[i] != null; i = (i + 1) & mask) {
+            if (trigrams[i] == trigram) {
+                return postings[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the posting list of a trigram which is not yet in the table.
+     *
+     * @param trigram The packed trigram.
+     * @param list    The posting list.
+     */
+    private void put(long trigram, Postings list) {
+        if (2 * (size + 1) > postings.length) {
+            resize(postings.length * 2);
+        }
+        int mask = postings.length - 1;
+        int i = hash(trigram) & mask;
+        while (postings[i] != null) {
+            i = (i + 1) & mask;
+        }
+        trigrams[i] = trigram;
+        postings[i] = list;
+        size++;
+    }
+
+    /**
+     * Removes the posting list of a trigram from the table, moving later entries of its probe run back.
+     *
+     * @param trigram The packed trigram, which must be in the table.
+     */
+    private void remove(long trigram) {
+        int mask = postings.length - 1;
+        int i = hash(trigram) & mask;
+        while (trigrams[i] != trigram) {
+            i = (i + 1) & mask;
+        }
+        postings[i] = null;
+        size--;
+        for (int j = (i + 1) & mask; postings[j] != null; j = (j + 1) & mask) {
+            int home = hash(trigrams[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                trigrams[i] = trigrams[j];
+                postings[i] = postings[j];
+                postings[j] = null;
+                i = j;
+            }
+        }
+        if (postings.length > MIN_CAPACITY && 8 * size < postings.length) {
+            resize(postings.length / 2);
+        }
+    }
+
+    /**
+     * Moves every entry into a new table of the specified capacity.
+     *
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    private void resize(int capacity) {
+        long[] oldTrigrams = trigrams;
+        Postings[] oldPostings = postings;
+        trigrams = new long[capacity];
+        postings = new Postings[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldPostings.length; i++) {
+            if (oldPostings[i] != null) {
+                int j = hash(oldTrigrams[i]) & mask;
+                while (postings[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                trigrams[j] = oldTrigrams[i];
+                postings[j] = oldPostings[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a packed trigram over the whole hash.
+     *
+     * @param trigram The packed trigram.
+     * @return The hash of the trigram.
+     */
+    private static int hash(long trigram) {
+        long h = trigram * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Packs the three characters starting at the specified index into a single key.
+     *
+     * @param text  The text.
+     * @param index The index of the first character.
+     * @return The trigram key.
+     */
+    private static long getTrigram(String text, int index) {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+    }
+
+    /**
+     * Postings class which holds the sorted ids of the tasks containing one trigram,
+     * together with the number of them that belong to deleted tasks.
+     */
+    private static class Postings {
+        private long[] ids = new long[2];
+        private int size = 0;
+        private int deadCount = 0;
+        private long lastDeadId = Task.NO_ID;
+
+        /**
+         * Adds an id, unless it was the last one added.
+         *
+         * @param id The id, which is never lower than the last one added.
+         */
+        void add(long id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        /**
+         * Counts the id of a deleted task as dead, once however many times its task contains the trigram.
+         *
+         * @param id The id of the deleted task.
+         * @return true if the id was counted, false if it was already counted.
+         */
+        boolean markDead(long id) {
+            if (id == lastDeadId) {
+                return false;
+            }
+            lastDeadId = id;
+            deadCount++;
+            return true;
+        }
+
+        /**
+         * Drops the ids of tasks that are no longer live, shrinking the array if it is mostly empty.
+         *
+         * @param isLive Tells whether the task with an id is still in the list.
+         */
+        void compact(LongPredicate isLive) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (isLive.test(ids[i])) {
+                    ids[count++] = ids[i];
+                }
+            }
+            size = count;
+            deadCount = 0;
+            if (ids.length > 2 && 4 * size < ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(2, size * 2));
+            }
+        }
+    }
+}
@@ -2,7 +2,10 @@ package myapp.quirkbot;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javafx.animation.PauseTransition;
 import javafx.application.Application;
@@ -21,12 +24,49 @@ import quirkbot.gui.MainWindow;
 public class Ui extends Application {
     private static final String HOME = System.getProperty("user.home");
     private static final String DIRECTORY_PATH = HOME + "/Documents/";
+    private static final String STORAGE_TYPE = System.getProperty("quirkbot.storage", "binary");
+    private static final boolean IS_JOURNAL_MODE = Boolean.parseBoolean(System.getProperty("quirkbot.journal", "true"));
     private static final String FILE_PATH = DIRECTORY_PATH + "TaskInfo.txt";
+    private static final String SHARD_DIRECTORY_PATH = DIRECTORY_PATH + "TaskShards";
+    private static final String ARCHIVE_PATH = DIRECTORY_PATH + "TaskArchive.gz";
+    private static final int ARCHIVE_AFTER_DAYS =
+            Integer.getInteger("quirkbot.archiveAfterDays", TaskArchive.DEFAULT_ARCHIVE_AFTER_DAYS);
+    private static final long COMMIT_WINDOW_MILLIS =
+            Long.getLong("quirkbot.commitWindowMillis", Journal.DEFAULT_COMMIT_WINDOW_MILLIS);
+    private static final int MAX_BATCH_SIZE =
+            Integer.getInteger("quirkbot.maxBatchSize", Journal.DEFAULT_MAX_BATCH_SIZE);
+    private static final long MAX_SEGMENT_BYTES =
+            Long.getLong("quirkbot.maxSegmentBytes", Journal.DEFAULT_MAX_SEGMENT_BYTES);
+    private static final int COMPACTION_THRESHOLD =
+            Integer.getInteger("quirkbot.compactionThreshold", Storage.DEFAULT_COMPACTION_THRESHOLD);
+    private static final long AUTOSAVE_QUIET_MILLIS =
+            Long.getLong("quirkbot.autosaveMillis", Autosaver.DEFAULT_QUIET_MILLIS);
+    private static final int PAGE_SIZE = 1000;
+    private static final int UPCOMING_DAYS = 7;
 
     private TaskList taskList;
-    private Storage storage;
+    private StorageBackend storage;
+    private TaskArchive archive;
+    private Autosaver autosaver;
     private String commandType = "";
 
+    /**
+     * Returns the format the task file is stored in, as chosen by the "quirkbot.storage" system property.
+     * An existing task file in another format is migrated to this format after it is first loaded.
+     *
+     * @return The format of the task file, which is binary by default.
+     */
+    private static TaskFileFormat getStorageFormat() {
+        switch (STORAGE_TYPE) {
+        case "text":
+            return TaskFileFormat.TEXT;
+        case "compressed":
+            return TaskFileFormat.COMPRESSED;
+        default:
+            return TaskFileFormat.BINARY;
+        }
+    }
+
     /**
      * Constructs a new GUI for the user.
      * Initializes the GUI application and greets the user during startup.
@@ -41,6 +81,7 @@ public class Ui extends Application {
             System.out.println("Oops! I couldn't set up storage. Let's try again later!");
             return;
         }
+        archive = new TaskArchive(ARCHIVE_PATH);
 
         try {
             stage.setMinHeight(220);
@@ -48,7 +89,8 @@ public class Ui extends Application {
             FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/MainWindow.fxml"));
             AnchorPane ap = fxmlLoader.load();
             fxmlLoader.<MainWindow>getController().setBuddy(this);
-            storage.loadTasks(taskList.getTasks());
+            storage.loadTasksInPages(taskList, PAGE_SIZE);
+            startAutosaver();
             stage.setTitle("QuirkBot - Your Friendly Assistant");
             Image icon = new Image(this.getClass().getResourceAsStream("/images/QuirkBot.png"));
             stage.getIcons().add(icon);
@@ -60,17 +102,37 @@ public class Ui extends Application {
         }
     }
 
+    /**
+     * Starts saving the task list in the background shortly after every change.
+     * In journal mode, each change is already durable once its record is flushed, and the autosave folds the
+     * records into the task file, so the journal stays short and the next launch has little to replay.
+     */
+    private void startAutosaver() {
+        autosaver = new Autosaver(storage, taskList, AUTOSAVE_QUIET_MILLIS);
+        taskList.setChangeListener(autosaver::requestSave);
+    }
+
     /**
      * Initializes the storage by creating necessary directories and files if they do not exist.
+     * The backend is chosen by the "quirkbot.storage" system property, which may be "text", "binary",
+     * "compressed", "sharded" or "memory", and single file backends record each mutation in a journal
+     * unless the "quirkbot.journal" system property is false.
      *
-     * @return the Storage instance if initialization is successful, otherwise null.
+     * @return the StorageBackend instance if initialization is successful, otherwise null.
      */
-    public Storage initStorage() {
+    public StorageBackend initStorage() {
+        if (STORAGE_TYPE.equals("memory")) {
+            return new InMemoryStorage();
+        }
+
         File directory = new File(DIRECTORY_PATH);
         if (!directory.exists() && !directory.mkdirs()) {
             System.out.println("Oh no! I couldn’t create the directory. Maybe try again later?");
             return null;
         }
+        if (STORAGE_TYPE.equals("sharded")) {
+            return new ShardedStorage(SHARD_DIRECTORY_PATH);
+        }
 
         File file = new File(FILE_PATH);
         if (!file.exists()) {
@@ -86,7 +148,11 @@ public class Ui extends Application {
             }
         }
 
-        return new Storage(FILE_PATH);
+        if (!IS_JOURNAL_MODE) {
+            return new Storage(FILE_PATH, getStorageFormat(), false);
+        }
+        return new Storage(FILE_PATH, getStorageFormat(), COMMIT_WINDOW_MILLIS, MAX_BATCH_SIZE, MAX_SEGMENT_BYTES,
+                COMPACTION_THRESHOLD);
     }
 
     /**
@@ -106,6 +172,8 @@ public class Ui extends Application {
             response = getTaskListMessage();
         } else if (command.equals("command")) {
             response = showListOfCommands();
+        } else if (command.equals("week")) {
+            response = handleUpcomingTasks();
         } else if (command.startsWith("delete")) {
             commandType = "DeleteCommand";
             response = handleDeleteTask(command);
@@ -114,8 +182,12 @@ public class Ui extends Application {
             response = handleMarkTask(command);
         } else if (command.startsWith("unmark")) {
             response = handleUnmarkTask(command);
+        } else if (command.startsWith("findall") || command.startsWith("findany")) {
+            response = handleFindWords(command);
         } else if (command.startsWith("find")) {
             response = handleFindTask(command);
+        } else if (command.startsWith("archive")) {
+            response = handleFindArchivedTask(command);
         } else {
             commandType = "AddCommand";
             response = handleAddTask(command);
@@ -147,7 +219,11 @@ public class Ui extends Application {
                 + "6. mark task_number\n"
                 + "7. unmark task_number\n"
                 + "8. list\n"
-                + "9. bye\n";
+                + "9. bye\n"
+                + "10. archive search_keyword\n"
+                + "11. findall search_words\n"
+                + "12. findany search_words\n"
+                + "13. week\n";
     }
 
     /**
@@ -161,8 +237,11 @@ public class Ui extends Application {
 
         try {
             int taskIndex = parseTaskIndex(command);
-            assert taskIndex >= 0 && taskIndex < taskList.size() : "The task index seems to be out of bounds!";
-            Task removedTask = taskList.deleteTask(taskIndex);
+            Task removedTask;
+            synchronized (taskList) {
+                removedTask = taskList.deleteTask(taskIndex);
+                storage.recordDelete(taskIndex);
+            }
             return showTaskRemoved(removedTask);
         } catch (NumberFormatException e) {
             return "Oopsie! That’s not a valid task index.";
@@ -180,9 +259,12 @@ public class Ui extends Application {
 
         try {
             int taskIndex = parseTaskIndex(command);
-            assert taskIndex >= 0 && taskIndex < taskList.size() : "Hmm, that task index is not valid.";
-            Task currentTask = taskList.getTask(taskIndex);
-            return showTaskMarked(currentTask);
+            synchronized (taskList) {
+                Task currentTask = taskList.getTask(taskIndex);
+                String response = showTaskMarked(currentTask);
+                storage.recordMark(taskIndex);
+                return response;
+            }
         } catch (NumberFormatException e) {
             return "Oh dear, that's not a valid task index.";
         }
@@ -199,9 +281,12 @@ public class Ui extends Application {
 
         try {
             int taskIndex = parseTaskIndex(command);
-            assert taskIndex >= 0 && taskIndex < taskList.size() : "The task index seems a bit off.";
-            Task currentTask = taskList.getTask(taskIndex);
-            return showTaskUnmarked(currentTask);
+            synchronized (taskList) {
+                Task currentTask = taskList.getTask(taskIndex);
+                String response = showTaskUnmarked(currentTask);
+                storage.recordUnmark(taskIndex);
+                return response;
+            }
         } catch (NumberFormatException e) {
             return "Oopsie daisy! That index doesn’t look right.";
         }
@@ -225,6 +310,73 @@ public class Ui extends Application {
         return showSearchResults(searchResults);
     }
 
+    /**
+     * Searches the task list for tasks containing all ("findall") or any ("findany") of the user's words.
+     *
+     * @param command entered by the user in the command box.
+     * @return the formatted search results.
+     */
+    public String handleFindWords(String command) {
+        assert command.startsWith("findall") || command.startsWith("findany")
+                : "Oops! The command should start with 'findall' or 'findany'.";
+
+        String query = command.substring(7).trim();
+        if (query.isEmpty()) {
+            return "Oops! You forgot to enter your search words. 😅";
+        }
+
+        List<Task> searchResults = taskList.searchWords(query, command.startsWith("findall"));
+        return showSearchResults(searchResults);
+    }
+
+    /**
+     * Shows the Deadlines due and the Events taking place in the coming week, starting today.
+     * With sharded storage, any unsaved changes are saved first and only the shards for those months are read,
+     * while other backends filter the tasks in the list. Commands run one at a time, so no change
+     * can slip in between the save and the read.
+     *
+     * @return the formatted list of upcoming tasks.
+     */
+    public String handleUpcomingTasks() {
+        LocalDate today = LocalDate.now();
+        LocalDate lastDay = today.plusDays(UPCOMING_DAYS - 1);
+        List<Task> upcomingTasks;
+        if (storage instanceof ShardedStorage) {
+            storage.saveChanges(taskList);
+            upcomingTasks = ((ShardedStorage) storage).loadTasksBetween(today, lastDay);
+        } else {
+            upcomingTasks = taskList.getTasks().stream()
+                    .filter(task -> ShardedStorage.isDatedBetween(task, today, lastDay))
+                    .collect(Collectors.toList());
+        }
+        if (upcomingTasks.isEmpty()) {
+            return "Nothing is due this week. Enjoy the breather! 🌿";
+        }
+        StringBuilder message = new StringBuilder("Here is what's coming up this week:\n");
+        for (int i = 0; i < upcomingTasks.size(); i++) {
+            message.append(i + 1).append(". ").append(upcomingTasks.get(i)).append("\n");
+        }
+        return message.toString();
+    }
+
+    /**
+     * Searches the archive of completed tasks for the user keyword.
+     *
+     * @param command entered by the user in the command box.
+     * @return the formatted search results.
+     */
+    public String handleFindArchivedTask(String command) {
+        assert command.startsWith("archive") : "Oops! The command should start with 'archive'.";
+
+        String keyword = command.substring(7).trim();
+        if (keyword.isEmpty()) {
+            return "Oops! You forgot to enter your search keyword. 😅";
+        }
+
+        List<Task> searchResults = archive.searchTasks(keyword);
+        return showSearchResults(searchResults);
+    }
+
     /**
      * Adds desired task to the task list and shows added task to user.
      *
@@ -239,7 +391,10 @@ public class Ui extends Application {
             return showErrorMessage(command);
         }
 
-        taskList.addTask(currentTask);
+        synchronized (taskList) {
+            taskList.addTask(currentTask);
+            storage.recordAdd(currentTask);
+        }
         return showTaskAdded(currentTask, taskList.size());
     }
 
@@ -280,10 +435,17 @@ public class Ui extends Application {
 
     /**
      * Displays a goodbye message to the user.
+     * Completed tasks older than the archive threshold are moved to the archive before the tasks are saved.
      * The application will exit 3 seconds after the message.
      */
     public void handleExit() {
-        storage.saveTasks(taskList.getTasks());
+        if (autosaver != null) {
+            taskList.setChangeListener(null);
+            autosaver.close();
+        }
+        archive.archiveDoneTasks(taskList, storage, LocalDateTime.now().minusDays(ARCHIVE_AFTER_DAYS));
+        storage.flush();
+        storage.saveOnExit(taskList);
         PauseTransition pause = new PauseTransition(Duration.seconds(3));
         pause.setOnFinished(e -> Platform.exit());
         pause.play();
@@ -353,10 +515,11 @@ public class Ui extends Application {
         assert taskList != null : "Task List should not be null";
 
         List<Task> tasks = taskList.getTasks();
-        String taskListMessage = tasks.stream()
-                .map(task -> (tasks.indexOf(task) + 1) + ". " + task)
-                .reduce("Here are the fabulous tasks in your list:\n", (acc, taskStr) -> acc + taskStr + "\n");
-        return taskListMessage;
+        StringBuilder taskListMessage = new StringBuilder("Here are the fabulous tasks in your list:\n");
+        for (int i = 0; i < tasks.size(); i++) {
+            taskListMessage.append(i + 1).append(". ").append(tasks.get(i)).append("\n");
+        }
+        return taskListMessage.toString();
     }
 
     /**
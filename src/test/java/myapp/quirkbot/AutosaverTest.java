@@ -0,0 +1,89 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class AutosaverTest {
+    @Test
+    public void testBurstOfChangesIsSavedOnce() throws InterruptedException {
+        AtomicInteger saveCount = new AtomicInteger();
+        Semaphore saves = new Semaphore(0);
+        InMemoryStorage storage = new InMemoryStorage() {
+            @Override
+            public synchronized void saveChanges(TaskList taskList) {
+                super.saveChanges(taskList);
+                saveCount.incrementAndGet();
+                saves.release();
+            }
+        };
+        AtomicLong clock = new AtomicLong();
+        TaskList taskList = new TaskList();
+        Autosaver autosaver = new Autosaver(storage, taskList, 10, clock::get);
+        taskList.setChangeListener(autosaver::requestSave);
+
+        taskList.addTask(new ToDo("read book"));
+        taskList.addTask(new ToDo("return book"));
+        taskList.addTask(new ToDo("buy groceries"));
+        taskList.deleteTask(2);
+        assertEquals(0, saveCount.get());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(saves.tryAcquire(5, TimeUnit.SECONDS));
+
+        taskList.getTask(0).markDone();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(saves.tryAcquire(5, TimeUnit.SECONDS));
+        autosaver.close();
+        assertEquals(2, saveCount.get());
+        ArrayList<Task> saved = new ArrayList<>();
+        storage.loadTasks(saved);
+        assertEquals(2, saved.size());
+        assertTrue(saved.get(0).getDone());
+
+        taskList.getTask(1).markDone();
+        saved.clear();
+        storage.loadTasks(saved);
+        assertFalse(saved.get(1).getDone());
+    }
+
+    @Test
+    public void testCommandsDoNotWaitForSave() throws InterruptedException {
+        CountDownLatch isSaving = new CountDownLatch(1);
+        CountDownLatch canFinish = new CountDownLatch(1);
+        InMemoryStorage storage = new InMemoryStorage() {
+            @Override
+            public synchronized void saveChanges(TaskList taskList) {
+                super.saveChanges(taskList);
+                isSaving.countDown();
+                try {
+                    canFinish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        TaskList taskList = new TaskList();
+        Autosaver autosaver = new Autosaver(storage, taskList, 0);
+        taskList.setChangeListener(autosaver::requestSave);
+
+        taskList.addTask(new ToDo("read book"));
+        assertTrue(isSaving.await(5, TimeUnit.SECONDS));
+        Thread command = new Thread(() -> taskList.addTask(new ToDo("return book")));
+        command.start();
+        command.join(5000);
+        assertFalse(command.isAlive());
+        assertEquals(2, taskList.size());
+
+        canFinish.countDown();
+        autosaver.close();
+    }
+}
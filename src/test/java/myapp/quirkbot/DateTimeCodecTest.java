@@ -0,0 +1,38 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+public class DateTimeCodecTest {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
+
+    @Test
+    public void testParseFileDateMatchesFormatter() {
+        String[] dates = {"02/09/2024 2359", "29/02/2024 0000", "29/02/2023 1200", "31/04/2024 0800",
+            "01/01/0001 0000"};
+        for (String date : dates) {
+            String line = "D | 0 | report | " + date;
+            int start = line.length() - date.length();
+            assertEquals(LocalDateTime.parse(date, FORMATTER), DateTimeCodec.parseFileDate(line, start, line.length()));
+        }
+        assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseFileDate("32/01/2024 0000", 0, 15));
+        assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseFileDate("1/1/2024 0000", 0, 13));
+    }
+
+    @Test
+    public void testAppendMatchesFormatters() {
+        LocalDateTime[] dates = {LocalDateTime.of(2024, 9, 2, 7, 5), LocalDateTime.of(1, 12, 31, 23, 59),
+            LocalDateTime.of(0, 1, 1, 0, 0), LocalDateTime.of(12024, 1, 1, 0, 0)};
+        for (LocalDateTime date : dates) {
+            assertEquals(date.format(FORMATTER), DateTimeCodec.appendFileDate(new StringBuilder(), date).toString());
+            assertEquals(date.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")),
+                    DateTimeCodec.appendDisplayDate(new StringBuilder(), date).toString());
+        }
+    }
+}
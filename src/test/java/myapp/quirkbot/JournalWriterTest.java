@@ -0,0 +1,43 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+public class JournalWriterTest {
+    @Test
+    public void testFailedCommitIsReportedToWaiters() throws IOException {
+        File directory = Files.createTempDirectory("journal").toFile();
+        directory.deleteOnExit();
+
+        JournalWriter writer = new JournalWriter(directory.getPath(), 0, 16);
+        writer.append("+ | T | 0 | read book".getBytes(StandardCharsets.UTF_8));
+        assertFalse(writer.flush());
+        assertTrue(writer.hasFailed());
+        writer.close();
+    }
+
+    @Test
+    public void testNextSegmentIsNotWrittenAfterFailure() throws IOException {
+        File directory = Files.createTempDirectory("journal").toFile();
+        directory.deleteOnExit();
+        File nextSegment = new File(directory, "journal.1");
+        nextSegment.deleteOnExit();
+
+        JournalWriter writer = new JournalWriter(directory.getPath(), 0, 16);
+        writer.append("+ | T | 0 | read book".getBytes(StandardCharsets.UTF_8));
+        writer.seal();
+        JournalWriter nextWriter = new JournalWriter(nextSegment.getPath(), 0, 16, writer);
+        nextWriter.append("- | 0".getBytes(StandardCharsets.UTF_8));
+        assertFalse(nextWriter.flush());
+        assertTrue(nextWriter.hasFailed());
+        nextWriter.close();
+        assertFalse(nextSegment.exists());
+    }
+}
@@ -0,0 +1,41 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class ParallelTaskLoaderTest {
+    @Test
+    public void testLoadKeepsFileOrder() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        int count = 200000;
+        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(TaskLineDecoder.CHECKPOINT_PREFIX + 3 + System.lineSeparator());
+            for (int i = 0; i < count; i++) {
+                writer.write("T | " + (i % 2) + " | tâche number " + i + System.lineSeparator());
+            }
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        new ParallelTaskLoader(file.getPath(), new ForkJoinPool(4)).loadTasks(tasks);
+        assertEquals(count, tasks.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("tâche number " + i, tasks.get(i).getDescription());
+            assertEquals(i % 2 == 1, tasks.get(i).getDone());
+        }
+
+        ArrayList<Task> firstPage = new ArrayList<>();
+        try (TaskReader reader = TaskReader.open(file.getPath(), TaskFileFormat.TEXT)) {
+            reader.readPage(firstPage, 1);
+        }
+        assertEquals("tâche number 0", firstPage.get(0).getDescription());
+    }
+}
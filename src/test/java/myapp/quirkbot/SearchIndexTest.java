@@ -0,0 +1,124 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SearchIndexTest {
+    @Test
+    public void testSavedIndexIsMappedAndUpdated() throws IOException {
+        File file = File.createTempFile("tasks", ".bin");
+        file.deleteOnExit();
+        File indexFile = new File(file.getPath() + ".idx");
+        indexFile.deleteOnExit();
+
+        Storage storage = new Storage(file.getPath(), TaskFileFormat.BINARY, false);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+        tasks.add(new ToDo("return book to library"));
+        tasks.add(new ToDo("buy groceries"));
+        storage.saveTasks(tasks);
+        assertNotNull(SearchIndex.open(indexFile.getPath(), file.getPath()));
+
+        TaskList taskList = new TaskList();
+        storage.loadTasksInPages(taskList, 10);
+        assertEquals(2, taskList.searchTasks("BOOK").size());
+        assertEquals(1, taskList.searchTasks("ok to lib").size());
+        assertEquals(1, taskList.searchTasks("roc").size());
+
+        taskList.deleteTask(0);
+        taskList.addTask(new ToDo("borrow book"));
+        List<Task> matches = taskList.searchTasks("book");
+        assertEquals(2, matches.size());
+        assertEquals("return book to library", matches.get(0).getDescription());
+        assertEquals("borrow book", matches.get(1).getDescription());
+        assertEquals(3, taskList.searchTasks(" ").size());
+    }
+
+    @Test
+    public void testWordQueries() throws IOException {
+        File file = File.createTempFile("tasks", ".bin");
+        file.deleteOnExit();
+        new File(file.getPath() + ".idx").deleteOnExit();
+
+        Storage storage = new Storage(file.getPath(), TaskFileFormat.BINARY, false);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+        tasks.add(new ToDo("return library book"));
+        tasks.add(new ToDo("buy groceries"));
+        storage.saveTasks(tasks);
+
+        TaskList taskList = new TaskList();
+        storage.loadTasksInPages(taskList, 10);
+        taskList.deleteTask(0);
+        taskList.addTask(new ToDo("Book club at the library"));
+
+        List<Task> allMatches = taskList.searchWords("library BOOK", true);
+        assertEquals(2, allMatches.size());
+        assertEquals("return library book", allMatches.get(0).getDescription());
+        assertEquals("Book club at the library", allMatches.get(1).getDescription());
+        assertEquals(3, taskList.searchWords("groceries, book", false).size());
+        assertEquals(0, taskList.searchWords("boo", false).size());
+        assertEquals(0, taskList.searchWords("read", false).size());
+    }
+
+    @Test
+    public void testChangesAreAppendedToSavedIndex() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        File indexFile = new File(file.getPath() + ".idx");
+        indexFile.deleteOnExit();
+
+        Storage storage = new Storage(file.getPath());
+        TaskList taskList = new TaskList();
+        taskList.addTask(new ToDo("read book"));
+        taskList.addTask(new ToDo("buy groceries"));
+        taskList.addTask(new ToDo("bake bread"));
+        storage.saveChanges(taskList);
+        long fullSize = indexFile.length();
+
+        taskList.deleteTask(1);
+        taskList.addTask(new ToDo("book flights"));
+        storage.saveChanges(taskList);
+        assertTrue(indexFile.length() > fullSize);
+
+        TaskList loaded = new TaskList();
+        new Storage(file.getPath()).loadTasksInPages(loaded, 10);
+        SearchIndex index = SearchIndex.open(indexFile.getPath(), file.getPath());
+        assertNotNull(index);
+        assertEquals(3, index.size());
+        index.bindIds(loaded.getTasks());
+        assertArrayEquals(new long[] {0, 2}, index.findCandidates(" bo"));
+        assertNull(index.findCandidates("oo"));
+        index.deleteTask(0);
+        assertArrayEquals(new long[] {2}, index.findWordMatches(List.of("book"), true));
+
+        List<Task> matches = loaded.searchTasks(" b");
+        assertEquals(2, matches.size());
+        assertEquals("read book", matches.get(0).getDescription());
+        assertEquals("bake bread", matches.get(1).getDescription());
+        assertEquals(2, loaded.searchWords("book", false).size());
+    }
+
+    @Test
+    public void testStaleIndexIsIgnored() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        File indexFile = File.createTempFile("tasks", ".idx");
+        indexFile.deleteOnExit();
+
+        SearchIndex.write(indexFile.getPath(), file.getPath(), List.of(new ToDo("read book")));
+        assertNotNull(SearchIndex.open(indexFile.getPath(), file.getPath()));
+        assertEquals(true, file.setLastModified(file.lastModified() - 60000));
+        assertNull(SearchIndex.open(indexFile.getPath(), file.getPath()));
+    }
+}
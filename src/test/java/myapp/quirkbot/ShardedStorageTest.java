@@ -0,0 +1,94 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class ShardedStorageTest {
+    @Test
+    public void testShardsByMonth() throws IOException {
+        File directory = Files.createTempDirectory("shards").toFile();
+        directory.deleteOnExit();
+        ShardedStorage storage = new ShardedStorage(directory.getPath());
+
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Deadline("programming assignment", LocalDateTime.of(2024, 9, 2, 23, 59)));
+        taskList.addTask(new ToDo("evening workout"));
+        taskList.addTask(new Deadline("quiz", LocalDateTime.of(2024, 10, 1, 9, 0)));
+        taskList.addTask(new Deadline("lab report", LocalDateTime.of(2024, 9, 20, 12, 0)));
+        storage.saveChanges(taskList);
+        List<String> shards = listShards(directory);
+        assertEquals(3, shards.size());
+        assertTrue(new File(directory, "manifest").exists());
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new ShardedStorage(directory.getPath()).loadTasks(loaded);
+        assertEquals(4, loaded.size());
+        assertEquals("evening workout", loaded.get(1).getDescription());
+        assertEquals("lab report", loaded.get(3).getDescription());
+
+        List<Task> september = storage.loadTasksBetween(LocalDate.of(2024, 9, 10), LocalDate.of(2024, 9, 30));
+        assertEquals(1, september.size());
+        assertEquals("lab report", september.get(0).getDescription());
+
+        taskList.getTask(1).markDone();
+        taskList.deleteTask(2);
+        storage.saveChanges(taskList);
+        List<String> changedShards = listShards(directory);
+        assertEquals(2, changedShards.size());
+        assertTrue(changedShards.stream().anyMatch(shards::contains));
+        assertFalse(changedShards.stream().anyMatch(name -> name.startsWith("2024-10")));
+
+        loaded.clear();
+        new ShardedStorage(directory.getPath()).loadTasks(loaded);
+        assertEquals(3, loaded.size());
+        assertTrue(loaded.get(1).getDone());
+        assertEquals("lab report", loaded.get(2).getDescription());
+    }
+
+    @Test
+    public void testSpanningEventIsStoredOnceAndFoundInEveryMonth() throws IOException {
+        File directory = Files.createTempDirectory("shards").toFile();
+        directory.deleteOnExit();
+        ShardedStorage storage = new ShardedStorage(directory.getPath());
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Deadline("quiz", LocalDateTime.of(2024, 10, 1, 9, 0)));
+        tasks.add(new Event("exchange semester", LocalDateTime.of(2024, 8, 5, 9, 0),
+                LocalDateTime.of(2024, 12, 6, 18, 0)));
+        tasks.add(new Event("lifelong project", LocalDateTime.of(2024, 1, 1, 9, 0),
+                LocalDateTime.of(9999, 12, 31, 18, 0)));
+        storage.saveTasks(tasks);
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        storage.loadTasks(loaded);
+        assertEquals(3, loaded.size());
+        List<Task> october = storage.loadTasksBetween(LocalDate.of(2024, 10, 10), LocalDate.of(2024, 10, 31));
+        assertEquals(2, october.size());
+        assertEquals("exchange semester", october.get(0).getDescription());
+        assertEquals(3, storage.loadTasksBetween(LocalDate.of(2024, 9, 1), LocalDate.of(2024, 10, 31)).size());
+        assertEquals(1, storage.loadTasksBetween(LocalDate.of(2030, 1, 1), LocalDate.of(9999, 1, 1)).size());
+        assertEquals(2, listShards(directory).size());
+    }
+
+    private static List<String> listShards(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".txt"));
+        for (File file : files) {
+            file.deleteOnExit();
+        }
+        new File(directory, "manifest").deleteOnExit();
+        return Arrays.stream(files).map(File::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,336 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+public class StorageTest {
+    @Test
+    public void testJournalReplay() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        new File(file.getPath() + ".journal").deleteOnExit();
+
+        Storage storage = new Storage(file.getPath(), true);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("evening workout"));
+        storage.saveTasks(tasks);
+        storage.recordAdd(new ToDo("read book"));
+        storage.recordAdd(new ToDo("buy groceries"));
+        storage.recordMark(2);
+        storage.recordDelete(0);
+        storage.flush();
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath(), true).loadTasks(loaded);
+        assertEquals(2, loaded.size());
+        assertEquals("read book", loaded.get(0).getDescription());
+        assertFalse(loaded.get(0).getDone());
+        assertEquals("buy groceries", loaded.get(1).getDescription());
+        assertTrue(loaded.get(1).getDone());
+    }
+
+    @Test
+    public void testTornJournalTailIsTruncated() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        File journalFile = new File(file.getPath() + ".journal");
+        journalFile.deleteOnExit();
+
+        Storage storage = new Storage(file.getPath(), true);
+        storage.recordAdd(new ToDo("read book"));
+        storage.recordAdd(new ToDo("buy groceries"));
+        storage.flush();
+        long intactLength = journalFile.length();
+        try (FileOutputStream stream = new FileOutputStream(journalFile, true)) {
+            stream.write(new byte[] {0, 0, 0, 40, 1, 2, 3, 4, '+', ' '});
+        }
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath(), true).loadTasks(loaded);
+        assertEquals(2, loaded.size());
+        assertEquals("buy groceries", loaded.get(1).getDescription());
+        assertEquals(intactLength, journalFile.length());
+    }
+
+    @Test
+    public void testSaveClearsJournal() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        new File(file.getPath() + ".journal").deleteOnExit();
+
+        Storage storage = new Storage(file.getPath(), true);
+        storage.recordAdd(new ToDo("read book"));
+        ArrayList<Task> tasks = new ArrayList<>();
+        storage.loadTasks(tasks);
+        storage.saveTasks(tasks);
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath(), true).loadTasks(loaded);
+        assertEquals(1, loaded.size());
+        assertEquals("read book", loaded.get(0).getDescription());
+    }
+
+    @Test
+    public void testFoldedSegmentIsNotReplayedTwice() throws IOException {
+        for (TaskFileFormat format : TaskFileFormat.values()) {
+            File file = File.createTempFile("tasks", format.getSuffix());
+            file.deleteOnExit();
+            File journalFile = new File(file.getPath() + ".journal");
+            journalFile.deleteOnExit();
+            new File(file.getPath() + ".journal.1").deleteOnExit();
+            new File(file.getPath() + ".idx").deleteOnExit();
+
+            Storage storage = new Storage(file.getPath(), true);
+            storage.recordAdd(new ToDo("read book"));
+            storage.flush();
+            byte[] foldedSegment = Files.readAllBytes(journalFile.toPath());
+            ArrayList<Task> tasks = new ArrayList<>();
+            storage.loadTasks(tasks);
+            storage.saveTasks(tasks);
+            Files.write(journalFile.toPath(), foldedSegment);
+
+            ArrayList<Task> loaded = new ArrayList<>();
+            new Storage(file.getPath(), true).loadTasks(loaded);
+            assertEquals(1, loaded.size());
+            assertFalse(journalFile.exists());
+        }
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        File file = File.createTempFile("tasks", ".bin");
+        file.deleteOnExit();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("evening workout"));
+        Deadline deadline = new Deadline("programming assignment", LocalDateTime.of(2024, 9, 2, 23, 59));
+        deadline.markDone();
+        tasks.add(deadline);
+        tasks.add(new Deadline("time capsule", LocalDateTime.of(9999, 12, 31, 23, 59)));
+        new Storage(file.getPath()).saveTasks(tasks);
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath()).loadTasks(loaded);
+        assertEquals(3, loaded.size());
+        assertEquals("T | 0 | evening workout", loaded.get(0).toFileFormat());
+        assertEquals("D | 1 | programming assignment | 02/09/2024 2359", loaded.get(1).toFileFormat());
+        assertEquals("D | 0 | time capsule | 31/12/9999 2359", loaded.get(2).toFileFormat());
+    }
+
+    @Test
+    public void testCompressedRoundTrip() throws IOException {
+        File file = File.createTempFile("tasks", ".z");
+        file.deleteOnExit();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2 * CompressedTaskFile.BLOCK_TASKS + 1; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        tasks.add(new Deadline("programming assignment", LocalDateTime.of(2024, 9, 2, 23, 59)));
+        new Storage(file.getPath()).saveTasks(tasks);
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath()).loadTasks(loaded);
+        assertEquals(tasks.size(), loaded.size());
+        assertEquals("T | 0 | task 4096", loaded.get(4096).toFileFormat());
+        assertEquals("D | 0 | programming assignment | 02/09/2024 2359",
+                loaded.get(loaded.size() - 1).toFileFormat());
+
+        TaskList taskList = new TaskList();
+        new Storage(file.getPath()).loadTasksInPages(taskList, 1000);
+        assertEquals(tasks.size(), taskList.size());
+        assertEquals("T | 0 | task 8192", taskList.getTask(8192).toFileFormat());
+    }
+
+    @Test
+    public void testLegacyTextFileIsMigrated() throws IOException, InterruptedException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("evening workout"));
+        tasks.add(new Deadline("programming assignment", LocalDateTime.of(2024, 9, 2, 23, 59)));
+        new Storage(file.getPath()).saveTasks(tasks);
+        assertEquals(TaskFileFormat.TEXT, TaskFileFormat.detect(file.getPath(), TaskFileFormat.BINARY));
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath(), TaskFileFormat.BINARY, false).loadTasks(loaded);
+        assertEquals(2, loaded.size());
+        for (int i = 0; i < 100 && TaskFileFormat.detect(file.getPath(), TaskFileFormat.TEXT)
+                != TaskFileFormat.BINARY; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(TaskFileFormat.BINARY, TaskFileFormat.detect(file.getPath(), TaskFileFormat.TEXT));
+
+        ArrayList<Task> reloaded = new ArrayList<>();
+        new Storage(file.getPath()).loadTasks(reloaded);
+        assertEquals("D | 0 | programming assignment | 02/09/2024 2359", reloaded.get(1).toFileFormat());
+    }
+
+    @Test
+    public void testPagedLoad() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        new Storage(file.getPath()).saveTasks(tasks);
+
+        TaskList taskList = new TaskList();
+        new Storage(file.getPath()).loadTasksInPages(taskList, 1000);
+        assertEquals("task 2400", taskList.getTask(2400).getDescription());
+        assertEquals(2500, taskList.size());
+        assertEquals("task 0", taskList.getTask(0).getDescription());
+    }
+
+    @Test
+    public void testMalformedLineIsSkipped() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), "T | 0 | read book\nX | 0 | damaged\nT | 1 | return book\n");
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath()).loadTasks(loaded);
+        assertEquals(2, loaded.size());
+        assertEquals("return book", loaded.get(1).getDescription());
+        assertTrue(loaded.get(1).getDone());
+    }
+
+    @Test
+    public void testLargeTextFilePagedLoad() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+        new File(file.getPath() + ".idx").deleteOnExit();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200000; i++) {
+            tasks.add(new ToDo("task number " + i));
+        }
+        new Storage(file.getPath()).saveTasks(tasks);
+        assertTrue(file.length() >= 4 * ParallelTaskLoader.MIN_CHUNK_SIZE);
+
+        TaskList taskList = new TaskList();
+        new Storage(file.getPath()).loadTasksInPages(taskList, 1000);
+        assertEquals("task number 0", taskList.getTask(0).getDescription());
+        assertEquals(200000, taskList.size());
+        assertEquals("task number 199999", taskList.getTask(199999).getDescription());
+    }
+
+    @Test
+    public void testBinaryIncrementalSave() throws IOException {
+        File file = File.createTempFile("tasks", ".bin");
+        file.deleteOnExit();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        new Storage(file.getPath()).saveTasks(tasks);
+
+        Storage storage = new Storage(file.getPath());
+        TaskList taskList = new TaskList();
+        ArrayList<Task> loadedTasks = new ArrayList<>();
+        storage.loadTasks(loadedTasks);
+        taskList.appendLoadedTasks(loadedTasks);
+        taskList.getTask(3).markDone();
+        taskList.deleteTask(0);
+        taskList.addTask(new ToDo("task 10"));
+        taskList.deleteTask(9);
+        taskList.addTask(new ToDo("task 11"));
+        storage.saveChanges(taskList);
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath()).loadTasks(loaded);
+        assertEquals(10, loaded.size());
+        assertEquals("task 1", loaded.get(0).getDescription());
+        assertTrue(loaded.get(2).getDone());
+        assertEquals("task 9", loaded.get(8).getDescription());
+        assertEquals("task 11", loaded.get(9).getDescription());
+
+        taskList.deleteTask(0);
+        taskList.getTask(1).markUndone();
+        taskList.getTask(0).markDone();
+        storage.saveChanges(taskList);
+
+        loaded.clear();
+        new Storage(file.getPath()).loadTasks(loaded);
+        assertEquals(9, loaded.size());
+        assertEquals("task 2", loaded.get(0).getDescription());
+        assertTrue(loaded.get(0).getDone());
+        assertFalse(loaded.get(1).getDone());
+        assertEquals("task 11", loaded.get(8).getDescription());
+    }
+
+    @Test
+    public void testInterruptedBinaryUpdateIsIgnored() throws IOException {
+        File file = File.createTempFile("tasks", ".bin");
+        file.deleteOnExit();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        new Storage(file.getPath()).saveTasks(tasks);
+
+        // Tombstone the record in slot 1 with the sequence number of an update that was never committed.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(BinaryTaskFile.HEADER_SIZE + BinaryTaskFile.RECORD_SIZE + 4);
+            raf.writeInt(2);
+        }
+
+        Storage storage = new Storage(file.getPath());
+        TaskList taskList = new TaskList();
+        ArrayList<Task> loadedTasks = new ArrayList<>();
+        storage.loadTasks(loadedTasks);
+        assertEquals(10, loadedTasks.size());
+        taskList.appendLoadedTasks(loadedTasks);
+        taskList.deleteTask(0);
+        storage.saveChanges(taskList);
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        new Storage(file.getPath()).loadTasks(loaded);
+        assertEquals(9, loaded.size());
+        assertEquals("task 1", loaded.get(0).getDescription());
+        assertEquals("task 9", loaded.get(8).getDescription());
+    }
+
+    @Test
+    public void testSegmentedJournalReplay() throws IOException {
+        File file = File.createTempFile("tasks", ".txt");
+        file.deleteOnExit();
+
+        Storage storage = new Storage(file.getPath(), 0, 16, 64, 2);
+        for (int i = 0; i < 100; i++) {
+            storage.recordAdd(new ToDo("task " + i));
+        }
+        storage.recordDelete(0);
+        storage.flush();
+
+        ArrayList<Task> loaded = new ArrayList<>();
+        storage.loadTasks(loaded);
+        assertEquals(99, loaded.size());
+        assertEquals("task 1", loaded.get(0).getDescription());
+        assertEquals("task 99", loaded.get(98).getDescription());
+
+        storage.saveTasks(loaded);
+        new File(file.getPath() + ".idx").deleteOnExit();
+        File[] leftovers = file.getParentFile().listFiles((dir, name) -> name.startsWith(file.getName() + ".")
+                && !name.endsWith(".idx"));
+        for (File leftover : leftovers) {
+            leftover.deleteOnExit();
+        }
+        assertEquals(1, leftovers.length);
+    }
+}
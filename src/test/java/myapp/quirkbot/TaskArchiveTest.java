@@ -0,0 +1,68 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskArchiveTest {
+    @Test
+    public void testArchiveDoneTasks() throws IOException {
+        File file = File.createTempFile("archive", ".gz");
+        file.deleteOnExit();
+        TaskArchive archive = new TaskArchive(file.getPath());
+        LocalDateTime cutoff = LocalDateTime.of(2024, 10, 1, 0, 0);
+
+        TaskList taskList = new TaskList();
+        Deadline oldDeadline = new Deadline("old report", LocalDateTime.of(2024, 9, 2, 23, 59));
+        oldDeadline.markDone();
+        Deadline recentDeadline = new Deadline("recent report", LocalDateTime.of(2024, 10, 2, 23, 59));
+        recentDeadline.markDone();
+        ToDo doneToDo = new ToDo("read book");
+        doneToDo.markDone();
+        taskList.addTask(oldDeadline);
+        taskList.addTask(new ToDo("buy groceries"));
+        taskList.addTask(recentDeadline);
+        taskList.addTask(doneToDo);
+
+        assertEquals(1, archive.archiveDoneTasks(taskList, new InMemoryStorage(), cutoff));
+        assertEquals(3, taskList.size());
+        assertEquals("buy groceries", taskList.getTask(0).getDescription());
+        assertEquals("read book", taskList.getTask(2).getDescription());
+        assertEquals(0, archive.archiveDoneTasks(taskList, new InMemoryStorage(), cutoff));
+
+        archive.append(List.of(new ToDo("another report")));
+        List<Task> matches = archive.searchTasks("REPORT");
+        assertEquals(2, matches.size());
+        assertEquals("D | 1 | old report | 02/09/2024 2359", matches.get(0).toFileFormat());
+        assertEquals("another report", matches.get(1).getDescription());
+    }
+
+    @Test
+    public void testTornMemberIsCutOffBeforeAppending() throws IOException {
+        File file = File.createTempFile("archive", ".gz");
+        file.deleteOnExit();
+        TaskArchive archive = new TaskArchive(file.getPath());
+        archive.append(List.of(new ToDo("first report")));
+        long end = file.length();
+        archive.append(List.of(new ToDo("second report")));
+
+        try (RandomAccessFile torn = new RandomAccessFile(file, "rw")) {
+            torn.setLength(file.length() - 5);
+        }
+        assertEquals(1, archive.searchTasks("report").size());
+
+        archive.append(List.of(new ToDo("third report")));
+        List<Task> matches = archive.searchTasks("report");
+        assertEquals(2, matches.size());
+        assertEquals("first report", matches.get(0).getDescription());
+        assertEquals("third report", matches.get(1).getDescription());
+        assertTrue(file.length() > end);
+    }
+}
@@ -0,0 +1,35 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskEncoderTest {
+    @Test
+    public void testEncodeMatchesFileFormat() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        Deadline deadline = new Deadline("return book", LocalDateTime.of(2024, 9, 2, 7, 5));
+        deadline.markDone();
+        tasks.add(deadline);
+        tasks.add(new ToDo("café ☕ and 🍰 with a long description that spans more than one buffer"));
+        tasks.add(new Deadline("ancient deadline", LocalDateTime.of(12024, 1, 1, 0, 0)));
+        tasks.add(new Deadline("year zero deadline", LocalDateTime.of(0, 6, 1, 12, 0)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TaskEncoder(64).encode(tasks, Channels.newChannel(out));
+
+        StringBuilder expected = new StringBuilder();
+        for (Task task : tasks) {
+            expected.append(task.toFileFormat()).append(System.lineSeparator());
+        }
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,38 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskIdMapTest {
+    @Test
+    public void testShrinksAsTasksAreRemoved() {
+        TaskIdMap map = new TaskIdMap();
+        Task[] tasks = new Task[1000];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new ToDo("task " + i);
+            map.put(i * 7L, tasks[i]);
+        }
+        int fullCapacity = map.capacity();
+        for (int i = 0; i < tasks.length; i += 2) {
+            map.remove(i * 7L);
+        }
+        for (int i = 0; i < tasks.length; i++) {
+            assertEquals(i % 2 == 0 ? null : tasks[i], map.get(i * 7L));
+        }
+
+        for (int i = 1; i < tasks.length - 1; i += 2) {
+            map.remove(i * 7L);
+        }
+        assertEquals(1, map.size());
+        assertTrue(map.capacity() < fullCapacity / 8);
+        assertEquals(tasks[tasks.length - 1], map.get((tasks.length - 1) * 7L));
+
+        Task late = new ToDo("saved with a large id");
+        map.put(Long.MAX_VALUE - 1, late);
+        assertEquals(late, map.get(Long.MAX_VALUE - 1));
+        assertNull(map.get(0));
+    }
+}
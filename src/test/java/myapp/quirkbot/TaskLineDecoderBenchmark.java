@@ -0,0 +1,84 @@
+package myapp.quirkbot;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * TaskLineDecoderBenchmark class which compares the time and memory taken to decode a line of the task file
+ * by splitting it with a regular expression, as tasks used to be decoded, and by {@link TaskLineDecoder}.
+ * Run its main method with the test classpath; it is not part of the test suite.
+ */
+public class TaskLineDecoderBenchmark {
+    private static final int LINE_COUNT = 200_000;
+    private static final int ROUNDS = 10;
+
+    /**
+     * Decodes the same lines with both decoders, and prints the average time and allocation per line of the last round.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        String[] lines = new String[LINE_COUNT];
+        for (int i = 0; i < LINE_COUNT; i++) {
+            lines[i] = i % 2 == 0
+                    ? "T | " + (i % 3 == 0 ? 1 : 0) + " | read chapter " + i
+                    : "D | 0 | submit report " + i + " | " + String.format("%02d/%02d/2024 %02d%02d",
+                            i % 28 + 1, i % 12 + 1, i % 24, i % 60);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            boolean isLastRound = round == ROUNDS;
+            measure("split and DateTimeFormatter", lines, isLastRound, true);
+            measure("TaskLineDecoder", lines, isLastRound, false);
+        }
+    }
+
+    /**
+     * Decodes every line once, printing the average cost per line if asked to.
+     *
+     * @param name     The name of the decoder.
+     * @param lines    The lines to decode.
+     * @param isPrint  Whether to print the result.
+     * @param isLegacy Whether to decode with a regular expression split.
+     */
+    private static void measure(String name, String[] lines, boolean isPrint, boolean isLegacy) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threads.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        int doneCount = 0;
+        for (String line : lines) {
+            Task task = isLegacy ? parseBySplit(line) : Storage.parseTask(line);
+            doneCount += task.getDone() ? 1 : 0;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+        if (isPrint) {
+            System.out.printf("%-28s %7.1f ns/line %7.1f bytes/line (%d done)%n", name,
+                    (double) nanos / lines.length, (double) bytes / lines.length, doneCount);
+        }
+    }
+
+    /**
+     * Decodes a line the way tasks were decoded before {@link TaskLineDecoder}.
+     *
+     * @param line The line to decode.
+     * @return The decoded task.
+     */
+    private static Task parseBySplit(String line) {
+        String[] parts = line.split(" \\| ");
+        Task task;
+        if (parts[0].equals("D")) {
+            task = new Deadline(parts[2].trim(),
+                    LocalDateTime.parse(parts[3], DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm")));
+        } else {
+            task = new ToDo(parts[2].trim());
+        }
+        if (parts[1].trim().equals("1")) {
+            task.markDone();
+        }
+        return task;
+    }
+}
@@ -0,0 +1,22 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskLineDecoderTest {
+    @Test
+    public void testParseTaskFields() {
+        Task todo = Storage.parseTask("T |  1  |  read book ");
+        assertEquals("read book", todo.getDescription());
+        assertEquals(true, todo.getDone());
+
+        Deadline deadline = Deadline.parseTask("D | 0 | return book | 02/09/2024 2359");
+        assertEquals("return book", deadline.getDescription());
+        assertEquals(false, deadline.getDone());
+        assertEquals(LocalDateTime.of(2024, 9, 2, 23, 59), deadline.getDeadlineBy());
+        assertEquals(null, Deadline.parseTask("D | 1 | no date").getDeadlineBy());
+    }
+}
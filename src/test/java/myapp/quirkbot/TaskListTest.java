@@ -0,0 +1,51 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskListTest {
+    @Test
+    public void testIdsSurviveDeletions() {
+        TaskList taskList = new TaskList();
+        taskList.appendLoadedTasks(List.of(new ToDo("read book"), new ToDo("return book")));
+        Task groceries = new ToDo("buy groceries");
+        taskList.addTask(groceries);
+        assertEquals(2, groceries.getId());
+
+        Task deleted = taskList.deleteTask(0);
+        assertNull(taskList.getTaskById(deleted.getId()));
+        assertEquals(groceries, taskList.getTaskById(2));
+        assertEquals("return book", taskList.getTaskById(1).getDescription());
+
+        Task laundry = new ToDo("do laundry");
+        taskList.addTask(laundry);
+        assertEquals(3, laundry.getId());
+        assertEquals(laundry, taskList.getTask(2));
+        assertNull(taskList.getTaskById(4));
+    }
+
+    @Test
+    public void testSearchMatchesFullScan() {
+        TaskList taskList = new TaskList();
+        String[] descriptions = {"Read BOOK", "return book to library", "buy groceries", "bookkeeping",
+            "call Mom", "a-b-c", "book club"};
+        for (String description : descriptions) {
+            taskList.addTask(new ToDo(description));
+        }
+        taskList.deleteTask(1);
+        String[] keywords = {"book", "BOOK ", "ook", "ok", "keep", "-b-", "groceries", "xyz", "o", "club"};
+        for (String keyword : keywords) {
+            List<Task> expected = taskList.getTasks().stream()
+                    .filter(task -> task.getDescription().toLowerCase().contains(keyword.toLowerCase()))
+                    .collect(Collectors.toList());
+            assertEquals(expected, taskList.searchTasks(keyword));
+        }
+        taskList.addTask(new ToDo("notebook"));
+        assertEquals(4, taskList.searchTasks("book").size());
+    }
+}
@@ -0,0 +1,64 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskSnapshotCacheTest {
+    @Test
+    public void testCacheIsUsedOnlyWhileTaskFileMatches() throws IOException {
+        File file = File.createTempFile("tasks", ".bin");
+        file.deleteOnExit();
+        File cacheFile = new File(file.getPath() + ".cache");
+        cacheFile.deleteOnExit();
+        new File(file.getPath() + ".idx").deleteOnExit();
+
+        Storage storage = new Storage(file.getPath(), TaskFileFormat.BINARY, false);
+        TaskList taskList = new TaskList();
+        Deadline deadline = new Deadline("return book", LocalDateTime.of(2024, 9, 2, 23, 59));
+        deadline.markDone();
+        taskList.addTask(new ToDo("read book"));
+        taskList.addTask(deadline);
+        storage.saveOnExit(taskList);
+
+        ArrayList<Task> cachedTasks = TaskSnapshotCache.load(cacheFile.getPath(), file.getPath());
+        assertEquals(2, cachedTasks.size());
+        assertEquals("T | 0 | read book", cachedTasks.get(0).toFileFormat());
+        assertEquals("D | 1 | return book | 02/09/2024 2359", cachedTasks.get(1).toFileFormat());
+
+        ArrayList<Task> consumedTasks = new ArrayList<>();
+        storage.loadTasks(consumedTasks);
+        assertEquals(2, consumedTasks.size());
+        assertFalse(cacheFile.exists());
+        storage.saveOnExit(taskList);
+
+        try (RandomAccessFile cache = new RandomAccessFile(cacheFile, "rw")) {
+            cache.seek(cache.length() - 1);
+            cache.write('X');
+        }
+        assertNull(TaskSnapshotCache.load(cacheFile.getPath(), file.getPath()));
+
+        TaskList loaded = new TaskList();
+        storage.loadTasksInPages(loaded, 1);
+        assertEquals(2, loaded.size());
+        assertEquals("return book", loaded.getTask(1).getDescription());
+
+        ArrayList<Task> changedTasks = new ArrayList<>();
+        changedTasks.add(new ToDo("buy groceries"));
+        storage.saveTasks(changedTasks);
+        assertNull(TaskSnapshotCache.load(cacheFile.getPath(), file.getPath()));
+
+        ArrayList<Task> reloaded = new ArrayList<>();
+        storage.loadTasks(reloaded);
+        assertEquals(1, reloaded.size());
+        assertEquals("buy groceries", reloaded.get(0).getDescription());
+    }
+}
@@ -0,0 +1,77 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskTreeStoreTest {
+    @Test
+    public void testPutGetDeleteAcrossReopen() throws IOException {
+        File file = File.createTempFile("tasks", ".tree");
+        file.delete();
+        file.deleteOnExit();
+
+        try (TaskTreeStore store = new TaskTreeStore(file.getPath(), 4)) {
+            for (long id = 0; id < 5000; id++) {
+                store.put((id * 7919) % 5000, new ToDo("task " + (id * 7919) % 5000));
+            }
+            assertEquals(5000, store.size());
+            assertTrue(store.delete(42));
+            assertFalse(store.delete(42));
+            store.put(43, new ToDo("renamed task"));
+        }
+
+        try (TaskTreeStore store = new TaskTreeStore(file.getPath(), 4)) {
+            assertEquals(4999, store.size());
+            assertNull(store.get(42));
+            assertEquals("T | 0 | renamed task", store.get(43).toFileFormat());
+            for (long id = 0; id < 5000; id += 499) {
+                assertEquals("T | 0 | task " + id, store.get(id).toFileFormat());
+            }
+        }
+    }
+
+    @Test
+    public void testCrashKeepsLastFlush() throws IOException {
+        File file = File.createTempFile("tasks", ".tree");
+        File crashed = File.createTempFile("crashed", ".tree");
+        file.delete();
+        file.deleteOnExit();
+        crashed.deleteOnExit();
+
+        try (TaskTreeStore store = new TaskTreeStore(file.getPath(), 4)) {
+            for (long id = 0; id < 2000; id++) {
+                store.put(id, new ToDo("task " + id));
+            }
+            store.flush();
+            for (long id = 0; id < 2000; id += 2) {
+                store.delete(id);
+            }
+            for (long id = 2000; id < 4000; id++) {
+                store.put(id, new ToDo("later task " + id));
+            }
+            Files.copy(file.toPath(), crashed.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try (TaskTreeStore store = new TaskTreeStore(crashed.getPath(), 4)) {
+            assertEquals(2000, store.size());
+            for (long id = 0; id < 2000; id++) {
+                assertEquals("T | 0 | task " + id, store.get(id).toFileFormat());
+            }
+            assertNull(store.get(2000));
+        }
+        try (TaskTreeStore store = new TaskTreeStore(file.getPath(), 4)) {
+            assertEquals(3000, store.size());
+            assertNull(store.get(0));
+            assertEquals("T | 0 | later task 3999", store.get(3999).toFileFormat());
+        }
+    }
+}
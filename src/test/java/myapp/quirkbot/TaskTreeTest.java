@@ -0,0 +1,42 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskTreeTest {
+    @Test
+    public void testMatchesArrayList() {
+        Random random = new Random(42);
+        TaskTree tree = new TaskTree();
+        List<Task> expected = new ArrayList<>();
+        List<Task> page = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            page.add(new ToDo("task " + i));
+        }
+        tree.addAll(page);
+        expected.addAll(page);
+
+        for (int i = 0; i < 2000; i++) {
+            int operation = random.nextInt(3);
+            if (operation == 0 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                Task task = new ToDo("inserted " + i);
+                tree.add(index, task);
+                expected.add(index, task);
+            } else if (operation == 1) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), tree.remove(index));
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), tree.get(index));
+            }
+        }
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected, new ArrayList<>(tree));
+    }
+}
@@ -1,6 +1,7 @@
 package myapp.quirkbot;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import org.junit.jupiter.api.Test;
 
@@ -26,4 +27,11 @@ public class ToDoTest {
         String actual = "T | 1 | evening workout";
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testLowerCaseDescription() {
+        ToDo task = new ToDo("Evening WORKOUT");
+        assertEquals("evening workout", task.getLowerCaseDescription());
+        assertSame(task.getLowerCaseDescription(), task.getLowerCaseDescription());
+    }
 }
@@ -0,0 +1,39 @@
+package myapp.quirkbot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexTest {
+    @Test
+    public void testDeletedIdsArePruned() {
+        TaskIdMap live = new TaskIdMap();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Task task = new ToDo(i % 2 == 0 ? "read book " + i : "bookbook");
+            task.setId(1000L * i);
+            live.put(task.getId(), task);
+            tasks.add(task);
+        }
+        TrigramIndex index = TrigramIndex.build(tasks, id -> live.get(id) != null);
+        assertEquals(100, index.findCandidates("read").length);
+
+        for (int i = 0; i < 150; i++) {
+            live.remove(tasks.get(i).getId());
+            index.deleteTask(tasks.get(i));
+        }
+        assertArrayEquals(new long[] {150_000, 152_000, 154_000, 156_000, 158_000}, index.findCandidates("book 15"));
+        assertEquals(25, index.findCandidates("read").length);
+
+        for (int i = 150; i < 200; i++) {
+            live.remove(tasks.get(i).getId());
+            index.deleteTask(tasks.get(i));
+        }
+        assertEquals(0, index.size());
+        assertEquals(0, index.findCandidates("book").length);
+    }
+}